@@ -0,0 +1,105 @@
+package com.dungeonboard.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cluster membership and request routing.
+ * With no cluster.nodes or cluster.nodes-file configured the node owns every room.
+ */
+@Configuration
+public class ClusterConfig implements WebMvcConfigurer {
+
+    @Value("${cluster.node-id:local}")
+    private String nodeId;
+
+    @Value("${cluster.node-url:http://localhost:${server.port:8080}}")
+    private String nodeUrl;
+
+    @Value("${cluster.nodes:}")
+    private String nodes;
+
+    @Value("${cluster.nodes-file:}")
+    private String nodesFile;
+
+    @Value("${cluster.nodes-file-refresh-ms:5000}")
+    private long nodesFileRefreshMs;
+
+    @Value("${cluster.bus:in-process}")
+    private String bus;
+
+    @Value("${cluster.bus.directory:${java.io.tmpdir}/dungeon-board-bus}")
+    private String busDirectory;
+
+    @Value("${cluster.bus.poll-interval-ms:20}")
+    private long busPollIntervalMs;
+
+    @Lazy
+    @Autowired
+    private RoomRoutingInterceptor roomRoutingInterceptor;
+
+    /**
+     * Timer for the cluster's file I/O (bus polling, nodes-file reloads), kept off the game timer so a
+     * slow disk or a busy bus listener never delays bot turns and turn deadlines.
+     * Two threads, so a slow reload does not stall bus delivery.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService clusterTimer() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ScheduledThreadPoolExecutor(2, runnable -> {
+            Thread thread = new Thread(runnable, "cluster-io-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public RoomDirectory roomDirectory(@Qualifier("clusterTimer") ScheduledExecutorService clusterTimer) {
+        ClusterNode localNode = new ClusterNode(nodeId, nodeUrl);
+
+        if (!nodesFile.isBlank()) {
+            FileRoomDirectory directory = new FileRoomDirectory(localNode, Path.of(nodesFile));
+            clusterTimer.scheduleWithFixedDelay(directory::reload,
+                    nodesFileRefreshMs, nodesFileRefreshMs, TimeUnit.MILLISECONDS);
+            return directory;
+        }
+
+        return new ConsistentHashRoomDirectory(localNode, ClusterNode.parseAll(nodes));
+    }
+
+    /**
+     * "in-process" for a single JVM, "file" for nodes sharing cluster.bus.directory
+     */
+    @Bean
+    public RoomEventBus roomEventBus(@Qualifier("clusterTimer") ScheduledExecutorService clusterTimer) throws IOException {
+        if ("file".equals(bus)) {
+            FileRoomEventBus fileBus = new FileRoomEventBus(Path.of(busDirectory), nodeId);
+            clusterTimer.scheduleWithFixedDelay(fileBus::poll,
+                    busPollIntervalMs, busPollIntervalMs, TimeUnit.MILLISECONDS);
+            return fileBus;
+        }
+        if (!"in-process".equals(bus)) {
+            throw new IllegalArgumentException("Unknown cluster.bus: " + bus);
+        }
+        return new InProcessRoomEventBus();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(roomRoutingInterceptor)
+                .addPathPatterns("/api/room/**", "/api/game/**");
+    }
+}
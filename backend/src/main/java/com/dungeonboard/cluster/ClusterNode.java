@@ -0,0 +1,34 @@
+package com.dungeonboard.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A backend node in the cluster, identified by id and reachable at its base HTTP url
+ */
+public record ClusterNode(String id, String url) {
+
+    public String webSocketUrl() {
+        return url.replaceFirst("^http", "ws") + "/ws/game";
+    }
+
+    /**
+     * Parse "id=url" entries separated by commas or newlines. Blank entries and # comments are skipped.
+     */
+    public static List<ClusterNode> parseAll(String spec) {
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (String entry : spec.split("[,\\n]")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            int separator = trimmed.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cluster node entry: " + trimmed);
+            }
+            nodes.add(new ClusterNode(trimmed.substring(0, separator).trim(), trimmed.substring(separator + 1).trim()));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,90 @@
+package com.dungeonboard.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Room directory that routes a room to the node encoded in its id.
+ * Ids without a known owner (created before owners were encoded, or whose node has left) fall back
+ * to a consistent hash ring. Each node is placed on the ring many times so rooms spread evenly.
+ */
+public class ConsistentHashRoomDirectory implements RoomDirectory {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final ClusterNode localNode;
+    private volatile Ring ring;
+
+    public ConsistentHashRoomDirectory(ClusterNode localNode, List<ClusterNode> nodes) {
+        this.localNode = localNode;
+        updateNodes(nodes);
+    }
+
+    @Override
+    public ClusterNode localNode() {
+        return localNode;
+    }
+
+    @Override
+    public ClusterNode ownerOf(String roomId) {
+        Ring ring = this.ring;
+        String ownerId = RoomDirectory.encodedOwner(roomId);
+        if (ownerId != null) {
+            ClusterNode owner = ring.nodesById().get(ownerId);
+            if (owner != null) {
+                return owner;
+            }
+        }
+
+        NavigableMap<Long, ClusterNode> points = ring.points();
+        Map.Entry<Long, ClusterNode> entry = points.ceilingEntry(hash(roomId));
+        return entry != null ? entry.getValue() : points.firstEntry().getValue();
+    }
+
+    @Override
+    public List<ClusterNode> nodes() {
+        return ring.nodes();
+    }
+
+    /**
+     * Replace the cluster membership. The local node is always kept on the ring.
+     */
+    public void updateNodes(List<ClusterNode> nodes) {
+        List<ClusterNode> members = nodes.stream().anyMatch(n -> n.id().equals(localNode.id()))
+                ? List.copyOf(nodes)
+                : Stream.concat(nodes.stream(), Stream.of(localNode)).toList();
+
+        NavigableMap<Long, ClusterNode> points = new TreeMap<>();
+        Map<String, ClusterNode> nodesById = new HashMap<>();
+        for (ClusterNode node : members) {
+            nodesById.put(node.id(), node);
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                points.put(hash(node.id() + "#" + i), node);
+            }
+        }
+        this.ring = new Ring(members, nodesById, points);
+    }
+
+    // 64-bit FNV-1a followed by a murmur3 finalizer to spread short, similar keys across the ring
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Ring(List<ClusterNode> nodes, Map<String, ClusterNode> nodesById,
+                        NavigableMap<Long, ClusterNode> points) {}
+}
@@ -0,0 +1,46 @@
+package com.dungeonboard.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Consistent-hash room directory whose membership is read from a shared file.
+ * Several JVMs on one machine can point at the same file to form a local test cluster.
+ */
+public class FileRoomDirectory extends ConsistentHashRoomDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileRoomDirectory.class);
+
+    private final Path file;
+    private volatile long lastModified = -1;
+
+    public FileRoomDirectory(ClusterNode localNode, Path file) {
+        super(localNode, List.of());
+        this.file = file;
+        reload();
+    }
+
+    /**
+     * Re-read the membership file if it changed since the last load
+     */
+    public void reload() {
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == lastModified) {
+                return;
+            }
+
+            List<ClusterNode> nodes = ClusterNode.parseAll(Files.readString(file));
+            updateNodes(nodes);
+            lastModified = modified;
+            logger.info("Loaded {} cluster nodes from {}", nodes().size(), file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not read cluster nodes file {}: {}", file, e.getMessage());
+        }
+    }
+}
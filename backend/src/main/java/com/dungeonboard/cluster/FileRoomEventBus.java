@@ -0,0 +1,404 @@
+package com.dungeonboard.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bus for several nodes on one machine, backed by a shared directory.
+ * <p>
+ * A subscribing node keeps a marker file "roomId@nodeId.epoch.sub" per room, touched on every
+ * {@link #poll()}; markers not touched for {@link #STALE_MARKER_MS} belong to a dead node and are removed.
+ * The owner publishes a room's events only while it has markers. Events are appended as length-prefixed
+ * frames to "roomId.epoch.events"; subscribers tail the newest segment, starting from its end.
+ * <p>
+ * The owner starts a new segment once the current one passes {@link #SEGMENT_BYTES}, or when the last
+ * subscriber has left. A subscriber moves on when the next segment appears, after reading the rest of
+ * the current one, and renames its marker to the new epoch; a segment is deleted once every marker
+ * of the room is past it.
+ */
+public class FileRoomEventBus implements RoomEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileRoomEventBus.class);
+
+    private static final long SEGMENT_BYTES = 1024 * 1024;
+    private static final long STALE_MARKER_MS = 10_000;
+    private static final long MARKER_TOUCH_MS = 1_000;
+
+    private static final String EVENTS_SUFFIX = ".events";
+    private static final String MARKER_SUFFIX = ".sub";
+
+    private final Path directory;
+    private final String nodeId;
+    private final Map<String, Segment> publishers = new ConcurrentHashMap<>();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    // Rooms with a live marker from any node, refreshed on every poll
+    private volatile Set<String> subscribedRooms = Set.of();
+
+    public FileRoomEventBus(Path directory, String nodeId) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.nodeId = nodeId;
+        scan();
+    }
+
+    @Override
+    public boolean hasSubscribers(String roomId) {
+        return subscribedRooms.contains(roomId);
+    }
+
+    @Override
+    public void publish(String roomId, byte[] frame) {
+        try {
+            Segment segment = publishers.computeIfAbsent(roomId, id -> new Segment(id, latestEpoch(id) + 1));
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + frame.length);
+            buffer.putInt(frame.length).put(frame).flip();
+            // One write per frame so tailing readers never see interleaved frames
+            synchronized (segment) {
+                segment.open();
+                while (buffer.hasRemaining()) {
+                    segment.channel.write(buffer);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error publishing event for room {}", roomId, e);
+        }
+    }
+
+    @Override
+    public void subscribe(String roomId, Consumer<byte[]> listener) {
+        Subscription subscription = new Subscription(roomId, listener);
+        long epoch = latestEpoch(roomId);
+        if (epoch >= 0) {
+            try {
+                subscription.epoch = epoch;
+                subscription.position = Files.size(segmentFile(roomId, epoch));
+            } catch (IOException e) {
+                // Deleted meanwhile: start with whatever segment comes next
+                subscription.epoch = epoch + 1;
+                subscription.position = 0;
+            }
+        }
+        subscription.touchMarker();
+        subscriptions.put(roomId, subscription);
+    }
+
+    @Override
+    public void unsubscribe(String roomId) {
+        Subscription subscription = subscriptions.remove(roomId);
+        if (subscription != null) {
+            subscription.deleteMarker();
+        }
+    }
+
+    @Override
+    public void roomRemoved(String roomId) {
+        Segment segment = publishers.remove(roomId);
+        if (segment == null) {
+            return;
+        }
+        synchronized (segment) {
+            segment.close();
+        }
+        deleteSegments(roomId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Deliver frames appended since the last poll to the subscribed listeners, refresh which rooms
+     * have subscribers, and rotate or delete segments they no longer need
+     */
+    public void poll() {
+        for (Subscription subscription : subscriptions.values()) {
+            try {
+                subscription.poll();
+            } catch (Exception e) {
+                logger.error("Error reading events of room {}", subscription.roomId, e);
+            }
+        }
+        try {
+            scan();
+        } catch (Exception e) {
+            logger.error("Error scanning event bus directory {}", directory, e);
+        }
+    }
+
+    private void scan() throws IOException {
+        Set<String> rooms = new HashSet<>();
+        // Lowest epoch some live subscriber still reads, per room
+        Map<String, Long> oldestRead = new HashMap<>();
+        long staleBefore = System.currentTimeMillis() - STALE_MARKER_MS;
+
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(directory, "*" + MARKER_SUFFIX)) {
+            for (Path marker : markers) {
+                Marker parsed = Marker.parse(marker.getFileName().toString());
+                if (parsed == null) {
+                    continue;
+                }
+                try {
+                    if (Files.getLastModifiedTime(marker).toMillis() < staleBefore) {
+                        Files.deleteIfExists(marker);
+                        continue;
+                    }
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                rooms.add(parsed.roomId);
+                oldestRead.merge(parsed.roomId, parsed.epoch, Math::min);
+            }
+        }
+        subscribedRooms = rooms;
+
+        for (Segment segment : publishers.values()) {
+            Long oldest = oldestRead.get(segment.roomId);
+            synchronized (segment) {
+                if (segment.size() > SEGMENT_BYTES || (oldest == null && segment.size() > 0)) {
+                    segment.rotate();
+                }
+                long unread = oldest != null ? Math.min(oldest, segment.epoch) : segment.epoch;
+                if (unread > segment.oldestKept) {
+                    deleteSegments(segment.roomId, unread);
+                    segment.oldestKept = unread;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete the room's segments with an epoch below the given one
+     */
+    private void deleteSegments(String roomId, long belowEpoch) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, segmentGlob(roomId))) {
+            for (Path file : files) {
+                Long epoch = segmentEpoch(roomId, file);
+                if (epoch != null && epoch < belowEpoch) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot delete event segments of room {}", roomId, e);
+        }
+    }
+
+    /**
+     * The room's newest segment epoch, or -1 when it has none
+     */
+    private long latestEpoch(String roomId) {
+        long latest = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, segmentGlob(roomId))) {
+            for (Path file : files) {
+                Long epoch = segmentEpoch(roomId, file);
+                if (epoch != null) {
+                    latest = Math.max(latest, epoch);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list event segments of room {}", roomId, e);
+        }
+        return latest;
+    }
+
+    private Path segmentFile(String roomId, long epoch) {
+        return directory.resolve(roomId + "." + epoch + EVENTS_SUFFIX);
+    }
+
+    private static String segmentGlob(String roomId) {
+        return roomId + ".*" + EVENTS_SUFFIX;
+    }
+
+    private static Long segmentEpoch(String roomId, Path file) {
+        String name = file.getFileName().toString();
+        String epoch = name.substring(roomId.length() + 1, name.length() - EVENTS_SUFFIX.length());
+        try {
+            return Long.parseLong(epoch);
+        } catch (NumberFormatException e) {
+            // Not one of this room's segments
+            return null;
+        }
+    }
+
+    /**
+     * The owner's current segment of a room; guarded by its own lock
+     */
+    private final class Segment {
+        private final String roomId;
+        private long epoch;
+        private FileChannel channel;
+        // Segments below this epoch are already deleted; earlier runs may have left older ones
+        private long oldestKept;
+
+        private Segment(String roomId, long epoch) {
+            this.roomId = roomId;
+            this.epoch = epoch;
+        }
+
+        private void open() throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(segmentFile(roomId, epoch),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+        }
+
+        private long size() throws IOException {
+            return channel != null ? channel.size() : 0;
+        }
+
+        /**
+         * Switch to the next epoch. The new file exists before any write goes to it and after the
+         * last write to the old one, so a subscriber that sees it can finish the old segment safely.
+         */
+        private void rotate() throws IOException {
+            close();
+            epoch++;
+            open();
+        }
+
+        private void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close event segment of room {}", roomId, e);
+            }
+            channel = null;
+        }
+    }
+
+    private final class Subscription {
+        private final String roomId;
+        private final Consumer<byte[]> listener;
+        // -1 until the owner has written a first segment
+        private long epoch = -1;
+        private long position;
+        private Path marker;
+        private long touchedAt;
+
+        private Subscription(String roomId, Consumer<byte[]> listener) {
+            this.roomId = roomId;
+            this.listener = listener;
+        }
+
+        private void poll() throws IOException {
+            if (epoch < 0) {
+                long latest = latestEpoch(roomId);
+                if (latest >= 0) {
+                    epoch = latest;
+                    position = 0;
+                }
+            }
+            // Finish each segment before moving to the next, which the owner no longer writes once it exists
+            while (epoch >= 0) {
+                read(segmentFile(roomId, epoch));
+                if (!Files.exists(segmentFile(roomId, epoch + 1))) {
+                    break;
+                }
+                read(segmentFile(roomId, epoch));
+                epoch++;
+                position = 0;
+            }
+            touchMarker();
+        }
+
+        private void read(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return;
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+                while (size - position >= Integer.BYTES) {
+                    header.clear();
+                    channel.read(header, position);
+                    int length = header.flip().getInt();
+                    if (size - position - Integer.BYTES < length) {
+                        // Frame still being written
+                        return;
+                    }
+
+                    ByteBuffer frame = ByteBuffer.allocate(length);
+                    while (frame.hasRemaining()) {
+                        channel.read(frame, position + Integer.BYTES + frame.position());
+                    }
+                    position += Integer.BYTES + length;
+                    listener.accept(frame.array());
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted after the room was removed
+            }
+        }
+
+        /**
+         * Keep the marker named after the epoch being read, and fresh enough not to count as stale
+         */
+        private void touchMarker() {
+            Path current = directory.resolve(roomId + "@" + nodeId + "." + epoch + MARKER_SUFFIX);
+            long now = System.currentTimeMillis();
+            try {
+                if (!current.equals(marker)) {
+                    Files.deleteIfExists(current);
+                    Files.createFile(current);
+                    if (marker != null) {
+                        Files.deleteIfExists(marker);
+                    }
+                    marker = current;
+                    touchedAt = now;
+                } else if (now - touchedAt >= MARKER_TOUCH_MS) {
+                    if (!Files.exists(current)) {
+                        // Removed as stale while this node was paused
+                        Files.createFile(current);
+                    }
+                    Files.setLastModifiedTime(current, FileTime.fromMillis(now));
+                    touchedAt = now;
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot update subscriber marker for room {}", roomId, e);
+            }
+        }
+
+        private void deleteMarker() {
+            try {
+                if (marker != null) {
+                    Files.deleteIfExists(marker);
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot delete subscriber marker for room {}", roomId, e);
+            }
+        }
+    }
+
+    private record Marker(String roomId, long epoch) {
+
+        /**
+         * Parse "roomId@nodeId.epoch.sub", or null for anything else
+         */
+        private static Marker parse(String name) {
+            String base = name.substring(0, name.length() - MARKER_SUFFIX.length());
+            int dot = base.lastIndexOf('.');
+            int at = base.lastIndexOf('@', dot);
+            if (dot < 0 || at <= 0) {
+                return null;
+            }
+            try {
+                return new Marker(base.substring(0, at), Long.parseLong(base.substring(dot + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
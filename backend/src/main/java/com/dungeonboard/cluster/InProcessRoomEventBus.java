@@ -0,0 +1,36 @@
+package com.dungeonboard.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bus for a single JVM: listeners are called directly on the publishing thread
+ */
+public class InProcessRoomEventBus implements RoomEventBus {
+
+    private final Map<String, Consumer<byte[]>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String roomId, byte[] frame) {
+        Consumer<byte[]> listener = listeners.get(roomId);
+        if (listener != null) {
+            listener.accept(frame);
+        }
+    }
+
+    @Override
+    public boolean hasSubscribers(String roomId) {
+        return listeners.containsKey(roomId);
+    }
+
+    @Override
+    public void subscribe(String roomId, Consumer<byte[]> listener) {
+        listeners.put(roomId, listener);
+    }
+
+    @Override
+    public void unsubscribe(String roomId) {
+        listeners.remove(roomId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.dungeonboard.cluster;
+
+import com.dungeonboard.dto.GameCommandRequest;
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.model.GameLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calls a remote room's owner on behalf of a WebSocket session connected to this node
+ */
+@Component
+public class RemoteRoomClient {
+
+    static final String FORWARDED_HEADER = "X-Dungeon-Forwarded-By";
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    /**
+     * The owner's GAME_STATE snapshot, tagged with the room's current sequence number
+     */
+    public CompletableFuture<GameEvent> fetchSnapshot(String roomId, String token) {
+        return send(request(roomId, "/snapshot", token).GET().build());
+    }
+
+    /**
+     * The owner's game log entries after afterSeq, as a LOG event
+     */
+    public CompletableFuture<GameEvent> fetchLog(String roomId, long afterSeq, String token) {
+        return httpClient.sendAsync(request(roomId, "/log?after=" + afterSeq, token).GET().build(),
+                        HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        return GameEvent.error(new String(response.body()));
+                    }
+                    try {
+                        return GameEvent.log(List.of(objectMapper.readValue(response.body(), GameLog.Entry[].class)));
+                    } catch (IOException e) {
+                        throw new RuntimeException("Invalid response from room owner", e);
+                    }
+                });
+    }
+
+    /**
+     * Apply a game command on the owner through its REST endpoint, e.g. action "roll"
+     */
+    public CompletableFuture<GameEvent> forwardCommand(String roomId, String action, GameCommandRequest command,
+                                                       String token) {
+        try {
+            HttpRequest request = request(roomId, "/" + action, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(command)))
+                    .build();
+            return send(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Parse an event serialized by another node; payloads come back as plain maps and lists
+     */
+    public GameEvent readEvent(byte[] json) throws IOException {
+        return objectMapper.readValue(json, GameEvent.class);
+    }
+
+    private HttpRequest.Builder request(String roomId, String path, String token) {
+        ClusterNode owner = roomDirectory.ownerOf(roomId);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(owner.url() + "/api/game/" + roomId + path))
+                .timeout(Duration.ofSeconds(10))
+                .header(FORWARDED_HEADER, roomDirectory.localNode().id());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<GameEvent> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    // 409 carries the STALE_STATE event
+                    if (status == 200 || status == 409) {
+                        try {
+                            return readEvent(response.body());
+                        } catch (IOException e) {
+                            throw new RuntimeException("Invalid response from room owner", e);
+                        }
+                    }
+                    return GameEvent.error(status == 401 ? "User not authenticated" : new String(response.body()));
+                });
+    }
+}
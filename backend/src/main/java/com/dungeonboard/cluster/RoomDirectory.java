@@ -0,0 +1,39 @@
+package com.dungeonboard.cluster;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps rooms to the node that owns their game state.
+ * New room ids carry their owner's node id ("nodeId-xxxxxxxx"), so a room stays on the node that
+ * created it even when membership changes later.
+ */
+public interface RoomDirectory {
+
+    char OWNER_SEPARATOR = '-';
+
+    ClusterNode localNode();
+
+    ClusterNode ownerOf(String roomId);
+
+    List<ClusterNode> nodes();
+
+    /**
+     * A fresh room id owned by the local node
+     */
+    default String newRoomId() {
+        return localNode().id() + OWNER_SEPARATOR + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * The owner node id encoded in the room id, or null for ids without one
+     */
+    static String encodedOwner(String roomId) {
+        int separator = roomId.lastIndexOf(OWNER_SEPARATOR);
+        return separator > 0 ? roomId.substring(0, separator) : null;
+    }
+
+    default boolean isLocal(String roomId) {
+        return ownerOf(roomId).id().equals(localNode().id());
+    }
+}
@@ -0,0 +1,33 @@
+package com.dungeonboard.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub of serialized room events between nodes.
+ * The owner publishes each broadcast frame once; a node subscribes only to the remote rooms
+ * its own sessions are watching, with at most one listener per room.
+ */
+public interface RoomEventBus {
+
+    /**
+     * Publish a room event serialized as JSON to every node subscribed to the room
+     */
+    void publish(String roomId, byte[] frame);
+
+    /**
+     * Whether any node currently relays the room; when none does the owner skips serializing
+     * and publishing its events. A new subscriber may miss events for a moment, which clients
+     * detect as a sequence gap and resync.
+     */
+    boolean hasSubscribers(String roomId);
+
+    void subscribe(String roomId, Consumer<byte[]> listener);
+
+    void unsubscribe(String roomId);
+
+    /**
+     * Release anything kept for a room that no longer exists
+     */
+    default void roomRemoved(String roomId) {
+    }
+}
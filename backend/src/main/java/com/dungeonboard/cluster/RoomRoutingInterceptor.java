@@ -0,0 +1,109 @@
+package com.dungeonboard.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends room-scoped REST requests that landed on the wrong node to the room's owner,
+ * either by forwarding them and relaying the response or by answering with a redirect.
+ */
+@Component
+public class RoomRoutingInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRoutingInterceptor.class);
+
+    private static final String FORWARDED_HEADER = RemoteRoomClient.FORWARDED_HEADER;
+
+    private static final List<String> FORWARDED_REQUEST_HEADERS =
+            List.of("Authorization", "Content-Type", "Accept", "If-None-Match");
+    private static final List<String> RELAYED_RESPONSE_HEADERS =
+            List.of("Content-Type", "ETag", "Retry-After");
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    @Value("${cluster.misrouted-requests:forward}")
+    private String misroutedRequests;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String roomId = pathVariables != null ? pathVariables.get("roomId") : null;
+
+        // Already forwarded once: serve locally rather than bounce between nodes that disagree on membership
+        if (roomId == null || roomDirectory.isLocal(roomId) || request.getHeader(FORWARDED_HEADER) != null) {
+            return true;
+        }
+
+        ClusterNode owner = roomDirectory.ownerOf(roomId);
+        String target = owner.url() + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+
+        if ("redirect".equalsIgnoreCase(misroutedRequests)) {
+            // 307 keeps the method and body on the retried request
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader("Location", target);
+            return false;
+        }
+
+        forward(request, response, owner, target);
+        return false;
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, ClusterNode owner, String target)
+            throws IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(target))
+                .timeout(Duration.ofSeconds(10))
+                .method(request.getMethod(), body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody())
+                .header(FORWARDED_HEADER, roomDirectory.localNode().id());
+
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forwarded.header(header, value);
+            }
+        }
+
+        try {
+            HttpResponse<byte[]> ownerResponse = httpClient.send(forwarded.build(), HttpResponse.BodyHandlers.ofByteArray());
+            response.setStatus(ownerResponse.statusCode());
+            for (String header : RELAYED_RESPONSE_HEADERS) {
+                ownerResponse.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+            }
+            response.getOutputStream().write(ownerResponse.body());
+        } catch (IOException e) {
+            logger.error("Error forwarding request to node {}", owner.id(), e);
+            response.sendError(HttpStatus.BAD_GATEWAY.value(), "Room owner unavailable");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+}
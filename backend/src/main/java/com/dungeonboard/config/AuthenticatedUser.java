@@ -0,0 +1,25 @@
+package com.dungeonboard.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal of an authenticated request, built from the JWT's signed claims without a database lookup
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private final Long id;
+    private final String username;
+    private final List<String> roles;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
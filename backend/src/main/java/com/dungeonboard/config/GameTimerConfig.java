@@ -0,0 +1,30 @@
+package com.dungeonboard.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared timer for delayed game work across all rooms.
+ * Timer tasks only hand work off to room executors, so a single thread serves thousands of rooms.
+ */
+@Configuration
+public class GameTimerConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService gameTimer(@Value("${game.timer.threads:1}") int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-timer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled turns are dropped from the queue immediately instead of lingering until due
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
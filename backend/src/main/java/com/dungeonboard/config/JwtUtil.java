@@ -1,75 +1,129 @@
 package com.dungeonboard.config;
 
+import com.dungeonboard.model.User;
+import com.dungeonboard.service.UserCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 
+/**
+ * Issues and verifies JWTs. Tokens carry the user id and roles as signed claims, so verifying one
+ * yields an {@link AuthenticatedUser} without touching the database. The key and parser are built once,
+ * and verified tokens are remembered in {@link VerifiedTokenCache} until they expire.
+ */
 @Component
 public class JwtUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final List<String> DEFAULT_ROLES = List.of("USER");
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    @Lazy
+    @Autowired
+    private UserCache userCache;
 
-    public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    @Autowired
+    private VerifiedTokenCache verifiedTokens;
 
-        return Jwts.builder()
-                .subject(userPrincipal.getUsername())
-                .issuedAt(new Date())
-                .expiration(new Date(new Date().getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
-                .compact();
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateJwtToken(String username) {
+    public String generateJwtToken(User user) {
+        Date now = new Date();
         return Jwts.builder()
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date(new Date().getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .subject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, DEFAULT_ROLES)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey)
                 .compact();
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        AuthenticatedUser user = parseToken(token);
+        return user != null ? user.getUsername() : null;
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseToken(authToken) != null;
+    }
+
+    /**
+     * Verify the token and return its user, or null when it is invalid or expired.
+     * A token seen before costs one digest and lookup; otherwise it is verified and parsed once.
+     * Tokens issued before the id claim existed are resolved once through the user cache.
+     */
+    public AuthenticatedUser parseToken(String authToken) {
+        AuthenticatedUser cached = verifiedTokens.get(authToken);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            claims = parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            logger.debug("Invalid JWT token: {}", e.getMessage());
+            return null;
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            logger.debug("JWT token is expired: {}", e.getMessage());
+            return null;
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
+            logger.debug("JWT token is unsupported: {}", e.getMessage());
+            return null;
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
+            logger.debug("JWT claims string is empty: {}", e.getMessage());
+            return null;
+        } catch (JwtException e) {
+            logger.debug("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
+
+        AuthenticatedUser user = toUser(claims);
+        if (user != null && claims.getExpiration() != null) {
+            verifiedTokens.put(authToken, user, claims.getExpiration().getTime());
         }
-        return false;
+        return user;
+    }
+
+    private AuthenticatedUser toUser(Claims claims) {
+        String username = claims.getSubject();
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            User user = userCache.getByUsername(username);
+            return user != null ? new AuthenticatedUser(user.getId(), username, DEFAULT_ROLES) : null;
+        }
+
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new AuthenticatedUser(userId.longValue(), username,
+                roles != null ? roles.stream().map(Object::toString).toList() : DEFAULT_ROLES);
     }
 }
@@ -14,9 +14,14 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Autowired
     private GameWebSocketHandler gameWebSocketHandler;
 
+    @Autowired
+    private JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(gameWebSocketHandler, "/ws/game")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setHandshakeHandler(new WebSocketHandshakeHandler())
                 .setAllowedOrigins("*");
     }
 }
@@ -3,12 +3,17 @@ package com.dungeonboard.controller;
 import com.dungeonboard.dto.*;
 import com.dungeonboard.model.User;
 import com.dungeonboard.service.AuthService;
+import com.dungeonboard.service.PasswordHashingExecutor;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -18,28 +23,35 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        try {
-            User user = authService.authenticateUser(loginRequest);
-            String jwt = authService.generateToken(user.getUsername());
-
-            return ResponseEntity.ok(new JwtResponse(jwt, "Bearer", user.getId(), user.getUsername()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new MessageResponse("Error: Invalid username or password"));
-        }
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        return authService.authenticateUser(loginRequest)
+                .<ResponseEntity<?>>thenApply(user -> {
+                    String jwt = authService.generateToken(user);
+                    return ResponseEntity.ok(new JwtResponse(jwt, "Bearer", user.getId(), user.getUsername()));
+                })
+                .exceptionally(e -> {
+                    if (unwrap(e) instanceof PasswordHashingExecutor.RejectedException rejected) {
+                        return busy(rejected);
+                    }
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(new MessageResponse("Error: Invalid username or password"));
+                });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
-        try {
-            User user = authService.registerUser(signUpRequest);
-            String jwt = authService.generateToken(user.getUsername());
-
-            return ResponseEntity.ok(new JwtResponse(jwt, "Bearer", user.getId(), user.getUsername()));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
+        return authService.registerUser(signUpRequest)
+                .<ResponseEntity<?>>thenApply(user -> {
+                    String jwt = authService.generateToken(user);
+                    return ResponseEntity.ok(new JwtResponse(jwt, "Bearer", user.getId(), user.getUsername()));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof PasswordHashingExecutor.RejectedException rejected) {
+                        return busy(rejected);
+                    }
+                    return ResponseEntity.badRequest().body(new MessageResponse(cause.getMessage()));
+                });
     }
 
     @PostMapping("/logout")
@@ -50,10 +62,20 @@ public class AuthController {
 
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
-        User user = authService.getCurrentUser();
+        User user = authService.getCurrentUserEntity();
         if (user != null) {
             return ResponseEntity.ok(user);
         }
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static ResponseEntity<?> busy(PasswordHashingExecutor.RejectedException rejected) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()))
+                .body(new MessageResponse(rejected.getMessage()));
+    }
 }
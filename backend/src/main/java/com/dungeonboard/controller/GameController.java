@@ -1,13 +1,16 @@
 package com.dungeonboard.controller;
 
 import com.dungeonboard.dto.CharacterSelectionRequest;
+import com.dungeonboard.dto.GameCommandRequest;
 import com.dungeonboard.dto.GameEvent;
-import com.dungeonboard.dto.GameStateDTO;
-import com.dungeonboard.model.GameState;
 import com.dungeonboard.service.AuthService;
+import com.dungeonboard.service.GameBroadcastService;
 import com.dungeonboard.service.GameService;
+import com.dungeonboard.service.GameStateSnapshotCache;
 import com.dungeonboard.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,34 +27,44 @@ public class GameController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private GameStateSnapshotCache snapshotCache;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private GameBroadcastService broadcastService;
+
     @PostMapping("/{roomId}/roll")
-    public ResponseEntity<?> rollDice(@PathVariable String roomId) {
+    public ResponseEntity<?> rollDice(@PathVariable String roomId,
+                                      @RequestBody(required = false) GameCommandRequest request) {
         try {
             var currentUser = authService.getCurrentUser();
             if (currentUser == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            GameEvent result = gameService.rollDice(roomId, currentUser.getId().toString());
-            return ResponseEntity.ok(result);
+            GameEvent result = gameService.rollDice(roomId, currentUser.getId().toString(),
+                    expectedVersion(request), commandId(request));
+            return toResponse(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @PostMapping("/{roomId}/reroll")
-    public ResponseEntity<?> reroll(@PathVariable String roomId) {
+    public ResponseEntity<?> reroll(@PathVariable String roomId,
+                                    @RequestBody(required = false) GameCommandRequest request) {
         try {
             var currentUser = authService.getCurrentUser();
             if (currentUser == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            GameEvent result = gameService.reroll(roomId, currentUser.getId().toString());
-            return ResponseEntity.ok(result);
+            GameEvent result = gameService.reroll(roomId, currentUser.getId().toString(),
+                    expectedVersion(request), commandId(request));
+            return toResponse(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -70,36 +83,76 @@ public class GameController {
             gameService.selectCharacter(roomId, currentUser.getId().toString(),
                     request.getClassId(), request.getRaceId());
 
-            GameState gameState = roomService.getGameState(roomId);
-            return ResponseEntity.ok(GameStateDTO.fromGameState(gameState));
+            return ResponseEntity.ok(snapshotCache.get(roomId).dto());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @PostMapping("/{roomId}/ability")
-    public ResponseEntity<?> useAbility(@PathVariable String roomId) {
+    public ResponseEntity<?> useAbility(@PathVariable String roomId,
+                                        @RequestBody(required = false) GameCommandRequest request) {
         try {
             var currentUser = authService.getCurrentUser();
             if (currentUser == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            gameService.useAbility(roomId, currentUser.getId().toString());
-            return ResponseEntity.ok("Ability used");
+            GameEvent result = gameService.useAbility(roomId, currentUser.getId().toString(),
+                    expectedVersion(request), commandId(request));
+            return toResponse(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Serialized once per state version; answers 304 while the client's ETag is current
+     */
     @GetMapping("/{roomId}/state")
-    public ResponseEntity<?> getGameState(@PathVariable String roomId) {
+    public ResponseEntity<?> getGameState(@PathVariable String roomId,
+                                          @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            GameStateSnapshotCache.Snapshot snapshot = snapshotCache.get(roomId);
+            if (snapshot == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (snapshot.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(snapshot.etag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.json());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Game log entries after the given log seq (GameStateDTO.logSeq), oldest first
+     */
+    @GetMapping("/{roomId}/log")
+    public ResponseEntity<?> getLog(@PathVariable String roomId,
+                                    @RequestParam(defaultValue = "0") long after) {
         try {
-            GameState gameState = roomService.getGameState(roomId);
-            if (gameState == null) {
+            return ResponseEntity.ok(gameService.getLog(roomId, after));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Full state tagged with the room's event sequence; used by nodes relaying the room's events
+     */
+    @GetMapping("/{roomId}/snapshot")
+    public ResponseEntity<?> getSnapshot(@PathVariable String roomId) {
+        try {
+            GameEvent snapshot = broadcastService.snapshot(roomId);
+            if (snapshot == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(GameStateDTO.fromGameState(gameState));
+            return ResponseEntity.ok(snapshot);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -124,4 +177,19 @@ public class GameController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    private Long expectedVersion(GameCommandRequest request) {
+        return request != null ? request.getExpectedVersion() : null;
+    }
+
+    private String commandId(GameCommandRequest request) {
+        return request != null ? request.getCommandId() : null;
+    }
+
+    private ResponseEntity<?> toResponse(GameEvent result) {
+        if ("STALE_STATE".equals(result.getType())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
 }
@@ -0,0 +1,54 @@
+package com.dungeonboard.controller;
+
+import com.dungeonboard.service.AuthService;
+import com.dungeonboard.service.MatchHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class HistoryController {
+
+    @Autowired
+    private MatchHistoryService matchHistoryService;
+
+    @Autowired
+    private AuthService authService;
+
+    @GetMapping
+    public ResponseEntity<?> getMyHistory(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            var currentUser = authService.getCurrentUser();
+            if (currentUser == null) {
+                return ResponseEntity.status(401).body("User not authenticated");
+            }
+
+            return ResponseEntity.ok(matchHistoryService.getHistory(currentUser.getId(), page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<?> getUserHistory(@PathVariable Long userId,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(matchHistoryService.getHistory(userId, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/match/{matchId}")
+    public ResponseEntity<?> getMatch(@PathVariable String matchId) {
+        try {
+            return ResponseEntity.ok(matchHistoryService.getMatch(matchId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.dungeonboard.controller;
+
+import com.dungeonboard.config.VerifiedTokenCache;
+import com.dungeonboard.handler.FrameEncoder;
+import com.dungeonboard.handler.SessionWriter;
+import com.dungeonboard.handler.SpectatorFanout;
+import com.dungeonboard.journal.GameJournal;
+import com.dungeonboard.service.BotTurnScheduler;
+import com.dungeonboard.service.GameStateSnapshotCache;
+import com.dungeonboard.service.MatchHistoryWriter;
+import com.dungeonboard.service.PasswordHashingExecutor;
+import com.dungeonboard.service.TurnDeadlineScheduler;
+import com.dungeonboard.service.UserActivityWriter;
+import com.dungeonboard.service.UserCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MetricsController {
+
+    @Autowired
+    private BotTurnScheduler botTurnScheduler;
+
+    @Autowired
+    private TurnDeadlineScheduler turnDeadlineScheduler;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    @Autowired
+    private FrameEncoder frameEncoder;
+
+    @Autowired
+    private SpectatorFanout spectatorFanout;
+
+    @Autowired
+    private GameStateSnapshotCache snapshotCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private UserActivityWriter userActivityWriter;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private GameJournal gameJournal;
+
+    @Autowired
+    private MatchHistoryWriter matchHistoryWriter;
+
+    @GetMapping
+    public ResponseEntity<?> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("botTurns", botTurnScheduler.getStats());
+        metrics.put("turnDeadlines", turnDeadlineScheduler.getStats());
+        metrics.put("outboundQueues", sessionWriter.getStats());
+        metrics.put("compression", frameEncoder.getStats());
+        metrics.put("spectators", spectatorFanout.getStats());
+        metrics.put("stateSnapshots", snapshotCache.getStats());
+        metrics.put("userCache", userCache.getStats());
+        metrics.put("verifiedTokens", verifiedTokenCache.getStats());
+        metrics.put("userActivity", userActivityWriter.getStats());
+        metrics.put("passwordHashing", passwordHashingExecutor.getStats());
+        metrics.put("journal", gameJournal.getStats());
+        metrics.put("matchHistory", matchHistoryWriter.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -1,12 +1,14 @@
 package com.dungeonboard.controller;
 
 import com.dungeonboard.dto.CreateRoomRequest;
-import com.dungeonboard.dto.GameStateDTO;
-import com.dungeonboard.model.GameState;
 import com.dungeonboard.model.Room;
 import com.dungeonboard.service.AuthService;
+import com.dungeonboard.service.GameService;
+import com.dungeonboard.service.GameStateSnapshotCache;
 import com.dungeonboard.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,9 +22,15 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private GameStateSnapshotCache snapshotCache;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private GameService gameService;
+
     @PostMapping("/create")
     public ResponseEntity<?> createRoom(@RequestBody CreateRoomRequest request) {
         try {
@@ -118,21 +126,31 @@ public class RoomController {
                 return ResponseEntity.status(403).body("Only host can start the game");
             }
 
-            GameState gameState = roomService.startGame(roomId);
-            return ResponseEntity.ok(GameStateDTO.fromGameState(gameState));
+            gameService.startGame(roomId);
+            return ResponseEntity.ok(snapshotCache.get(roomId).dto());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Serialized once per state version; answers 304 while the client's ETag is current
+     */
     @GetMapping("/{roomId}/state")
-    public ResponseEntity<?> getGameState(@PathVariable String roomId) {
+    public ResponseEntity<?> getGameState(@PathVariable String roomId,
+                                          @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            GameState gameState = roomService.getGameState(roomId);
-            if (gameState == null) {
+            GameStateSnapshotCache.Snapshot snapshot = snapshotCache.get(roomId);
+            if (snapshot == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(GameStateDTO.fromGameState(gameState));
+            if (snapshot.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(snapshot.etag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.json());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
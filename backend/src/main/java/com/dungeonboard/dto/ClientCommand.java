@@ -0,0 +1,21 @@
+package com.dungeonboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Command sent by a client over the game WebSocket, in either the JSON or the binary protocol
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClientCommand {
+    private String type;
+    private String roomId;
+    private Long expectedVersion;
+    private String commandId;
+    private Long lastSeq; // RESUME: last room event the client received; FETCH_LOG: last log entry
+}
@@ -0,0 +1,26 @@
+package com.dungeonboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reply to a game command sent over the WebSocket, correlated by the client's command id
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandAck {
+    private String commandId;
+    private boolean accepted;
+    private GameEvent result;
+
+    public static CommandAck of(String commandId, GameEvent result) {
+        boolean accepted = !"ERROR".equals(result.getType()) && !"STALE_STATE".equals(result.getType());
+        return new CommandAck(commandId, accepted, result);
+    }
+
+    public static CommandAck rejected(String commandId, String error) {
+        return new CommandAck(commandId, false, GameEvent.error(error));
+    }
+}
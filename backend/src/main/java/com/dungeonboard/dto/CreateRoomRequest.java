@@ -19,4 +19,9 @@ public class CreateRoomRequest {
     private boolean isPrivate = false;
 
     private int botCount = 0;
+
+    // Seconds a human player has to roll before the server acts for them; null uses the server default, 0 disables
+    @Min(0)
+    @Max(600)
+    private Integer turnTimeoutSeconds;
 }
@@ -0,0 +1,14 @@
+package com.dungeonboard.dto;
+
+import lombok.Data;
+
+/**
+ * Optional body for game commands.
+ * expectedVersion is the GameState version the client acted on; stale commands are rejected.
+ * commandId is generated by the client and reused on retries so a command is applied at most once.
+ */
+@Data
+public class GameCommandRequest {
+    private Long expectedVersion;
+    private String commandId;
+}
@@ -1,67 +1,145 @@
 package com.dungeonboard.dto;
 
+import com.dungeonboard.model.GameLog;
 import com.dungeonboard.model.GameState;
 import com.dungeonboard.model.Player;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * Message sent to clients. The payload is always a DTO projection, never a live model object.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class GameEvent {
     private String type;
     private Object data;
     private String message;
-    private GameState gameState;
+    private long version;
+    private long seq; // Position in the room's broadcast stream, 0 for direct replies
+
+    public GameEvent(String type, Object data, String message) {
+        this(type, data, message, 0, 0);
+    }
+
+    public GameEvent withVersion(long version) {
+        this.version = version;
+        return this;
+    }
+
+    public GameEvent withSeq(long seq) {
+        this.seq = seq;
+        return this;
+    }
 
     public static GameEvent gameStateUpdate(GameState gameState) {
-        return new GameEvent("GAME_STATE", null, null, gameState);
+        return gameSnapshot(GameStateDTO.fromGameState(gameState));
+    }
+
+    public static GameEvent gameSnapshot(GameStateDTO state) {
+        return new GameEvent("GAME_STATE", state, null).withVersion(state.getVersion());
+    }
+
+    public static GameEvent stateDelta(GameStateDelta delta) {
+        return new GameEvent("STATE_DELTA", delta, null);
+    }
+
+    /**
+     * Several room events delivered in one frame, in sequence order
+     */
+    public static GameEvent batch(List<GameEvent> events) {
+        GameEvent last = events.get(events.size() - 1);
+        return new GameEvent("BATCH", events, null).withVersion(last.getVersion()).withSeq(last.getSeq());
+    }
+
+    public static GameEvent commandAck(CommandAck ack) {
+        GameEvent result = ack.getResult();
+        return new GameEvent("ACK", ack, result.getMessage()).withVersion(result.getVersion());
+    }
+
+    /**
+     * Game log entries a client asked for with FETCH_LOG
+     */
+    public static GameEvent log(List<GameLog.Entry> entries) {
+        return new GameEvent("LOG", entries, null);
+    }
+
+    public static GameEvent lobbySnapshot(List<LobbyRoom> rooms) {
+        return new GameEvent("LOBBY_SNAPSHOT", rooms, null);
+    }
+
+    public static GameEvent lobbyUpdate(LobbyUpdate update) {
+        return new GameEvent("LOBBY_UPDATE", update, null);
     }
 
     public static GameEvent playerJoined(Player player) {
-        return new GameEvent("PLAYER_JOINED", player, player.getUsername() + " joined the game", null);
+        return new GameEvent("PLAYER_JOINED", GameStateDTO.SimplePlayer.fromPlayer(player),
+                player.getUsername() + " joined the game");
     }
 
     public static GameEvent playerLeft(Player player) {
-        return new GameEvent("PLAYER_LEFT", player, player.getUsername() + " left the game", null);
+        return new GameEvent("PLAYER_LEFT", GameStateDTO.SimplePlayer.fromPlayer(player),
+                player.getUsername() + " left the game");
     }
 
     public static GameEvent gameStarted() {
-        return new GameEvent("GAME_STARTED", null, "Game started!", null);
+        return new GameEvent("GAME_STARTED", null, "Game started!");
     }
 
     public static GameEvent diceRolled(int roll) {
-        return new GameEvent("DICE_ROLLED", roll, "Dice rolled: " + roll, null);
+        return new GameEvent("DICE_ROLLED", roll, "Dice rolled: " + roll);
     }
 
     public static GameEvent playerMoved(String username, int newPosition) {
-        return new GameEvent("PLAYER_MOVED", null, username + " moved to position " + newPosition, null);
+        return new GameEvent("PLAYER_MOVED", null, username + " moved to position " + newPosition);
     }
 
     public static GameEvent combatResult(String message, boolean victory) {
-        return new GameEvent("COMBAT_RESULT", victory, message, null);
+        return new GameEvent("COMBAT_RESULT", victory, message);
     }
 
     public static GameEvent treasureFound(int amount) {
-        return new GameEvent("TREASURE_FOUND", amount, "Found " + amount + " gold!", null);
+        return new GameEvent("TREASURE_FOUND", amount, "Found " + amount + " gold!");
     }
 
     public static GameEvent trapTriggered(int damage) {
-        return new GameEvent("TRAP_TRIGGERED", damage, "Trap! Took " + damage + " damage", null);
+        return new GameEvent("TRAP_TRIGGERED", damage, "Trap! Took " + damage + " damage");
     }
 
     public static GameEvent eventCard(String message) {
-        return new GameEvent("EVENT_CARD", null, message, null);
+        return new GameEvent("EVENT_CARD", null, message);
+    }
+
+    public static GameEvent abilityUsed(String username) {
+        return new GameEvent("ABILITY_USED", null, username + " used their class ability");
+    }
+
+    public static GameEvent turnSkipped(String username) {
+        return new GameEvent("TURN_SKIPPED", null, username + "'s turn was skipped");
     }
 
     public static GameEvent gameOver(String winner) {
-        return new GameEvent("GAME_OVER", winner, "Game Over! Winner: " + winner, null);
+        return new GameEvent("GAME_OVER", winner, "Game Over! Winner: " + winner);
+    }
+
+    public static GameEvent redirect(String webSocketUrl) {
+        return new GameEvent("REDIRECT", webSocketUrl, "Room is hosted on another server");
     }
 
     public static GameEvent error(String message) {
-        return new GameEvent("ERROR", null, message, null);
+        return new GameEvent("ERROR", null, message);
+    }
+
+    public static GameEvent staleState(long currentVersion) {
+        return new GameEvent("STALE_STATE", currentVersion, "Game state has changed, refresh and try again")
+                .withVersion(currentVersion);
     }
 }
@@ -25,15 +25,27 @@ public class GameStateDTO {
     private String lastEvent;
     private boolean waitingForRoll;
     private String winnerId;
+    private long version;
+    private long turnDeadlineAt;
+    private long logSeq; // Newest game log entry; fetch entries after the last one seen
 
     public static GameStateDTO fromGameState(GameState gameState) {
+        return fromGameState(gameState, true);
+    }
+
+    /**
+     * Build the DTO, optionally without the static board tiles
+     */
+    public static GameStateDTO fromGameState(GameState gameState, boolean includeTiles) {
         List<SimplePlayer> players = gameState.getPlayers().stream()
                 .map(SimplePlayer::fromPlayer)
                 .collect(Collectors.toList());
 
-        List<SimpleTile> tiles = gameState.getBoard().getTiles().stream()
-                .map(SimpleTile::fromTile)
-                .collect(Collectors.toList());
+        List<SimpleTile> tiles = includeTiles
+                ? gameState.getBoard().getTiles().stream()
+                        .map(SimpleTile::fromTile)
+                        .collect(Collectors.toList())
+                : null;
 
         return new GameStateDTO(
                 gameState.getRoomId(),
@@ -45,7 +57,10 @@ public class GameStateDTO {
                 gameState.getMaxRounds(),
                 gameState.getLastEvent(),
                 gameState.isWaitingForRoll(),
-                gameState.getWinnerId()
+                gameState.getWinnerId(),
+                gameState.getVersion(),
+                gameState.getTurnDeadlineAt(),
+                gameState.getGameLog().getSequence()
         );
     }
 
@@ -0,0 +1,104 @@
+package com.dungeonboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Changes to a room's game state since the previous broadcast.
+ * Only changed fields are set; a keyframe sets every field so clients can resync from it.
+ * The static board is never part of a delta, clients get it once in the join snapshot.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStateDelta {
+    private boolean keyframe;
+    private String status;
+    private Integer currentPlayerIndex;
+    private Integer currentRound;
+    private Integer maxRounds;
+    private String lastEvent;
+    private Boolean waitingForRoll;
+    private String winnerId;
+    private Long turnDeadlineAt;
+    private Integer playerCount;
+    private List<PlayerChange> players;
+    private Long logSeq;
+
+    /**
+     * Diff two board-less snapshots. A null previous snapshot yields a keyframe.
+     * Fields that change back to null (which the game never does) are not representable.
+     */
+    public static GameStateDelta between(GameStateDTO previous, GameStateDTO current) {
+        GameStateDelta delta = new GameStateDelta();
+        boolean keyframe = previous == null;
+        delta.keyframe = keyframe;
+
+        if (keyframe || !Objects.equals(previous.getStatus(), current.getStatus())) {
+            delta.status = current.getStatus();
+        }
+        if (keyframe || previous.getCurrentPlayerIndex() != current.getCurrentPlayerIndex()) {
+            delta.currentPlayerIndex = current.getCurrentPlayerIndex();
+        }
+        if (keyframe || previous.getCurrentRound() != current.getCurrentRound()) {
+            delta.currentRound = current.getCurrentRound();
+        }
+        if (keyframe || previous.getMaxRounds() != current.getMaxRounds()) {
+            delta.maxRounds = current.getMaxRounds();
+        }
+        if (keyframe || !Objects.equals(previous.getLastEvent(), current.getLastEvent())) {
+            delta.lastEvent = current.getLastEvent();
+        }
+        if (keyframe || previous.isWaitingForRoll() != current.isWaitingForRoll()) {
+            delta.waitingForRoll = current.isWaitingForRoll();
+        }
+        if (keyframe || !Objects.equals(previous.getWinnerId(), current.getWinnerId())) {
+            delta.winnerId = current.getWinnerId();
+        }
+        if (keyframe || previous.getTurnDeadlineAt() != current.getTurnDeadlineAt()) {
+            delta.turnDeadlineAt = current.getTurnDeadlineAt();
+        }
+        if (keyframe || previous.getLogSeq() != current.getLogSeq()) {
+            delta.logSeq = current.getLogSeq();
+        }
+
+        List<GameStateDTO.SimplePlayer> players = current.getPlayers();
+        boolean rosterChanged = keyframe || previous.getPlayers().size() != players.size();
+        List<PlayerChange> changes = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            if (rosterChanged || !previous.getPlayers().get(i).equals(players.get(i))) {
+                changes.add(new PlayerChange(i, players.get(i)));
+            }
+        }
+        if (rosterChanged) {
+            delta.playerCount = players.size();
+        }
+        if (!changes.isEmpty()) {
+            delta.players = changes;
+        }
+
+        return delta;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return !keyframe && status == null && currentPlayerIndex == null && currentRound == null
+                && maxRounds == null && lastEvent == null && waitingForRoll == null && winnerId == null
+                && turnDeadlineAt == null && playerCount == null && players == null && logSeq == null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerChange {
+        private int index;
+        private GameStateDTO.SimplePlayer player;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dungeonboard.dto;
+
+import com.dungeonboard.model.Room;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What the lobby shows about an open room
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LobbyRoom {
+    private String roomId;
+    private String name;
+    private int playerCount;
+    private int maxPlayers;
+    private long createdAt;
+
+    public static LobbyRoom fromRoom(Room room) {
+        return new LobbyRoom(room.getRoomId(), room.getName(), room.getPlayerCount(),
+                room.getMaxPlayers(), room.getCreatedAt());
+    }
+}
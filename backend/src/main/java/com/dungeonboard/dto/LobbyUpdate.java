@@ -0,0 +1,26 @@
+package com.dungeonboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lobby changes since the previous update, batched over the lobby flush interval
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class LobbyUpdate {
+    private List<LobbyRoom> added = new ArrayList<>();
+    private List<LobbyRoom> updated = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.dungeonboard.dto;
+
+import com.dungeonboard.model.Match;
+import com.dungeonboard.model.MatchResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A finished match with every player's result, best placement first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchDetails {
+    private Match match;
+    private List<MatchResult> results;
+}
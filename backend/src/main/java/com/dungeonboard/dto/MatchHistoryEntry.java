@@ -0,0 +1,40 @@
+package com.dungeonboard.dto;
+
+import com.dungeonboard.model.Match;
+import com.dungeonboard.model.MatchResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One finished match in a user's history, with that user's result
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchHistoryEntry {
+    private String matchId;
+    private String roomName;
+    private int playerCount;
+    private int roundsPlayed;
+    private String winnerName;
+    private LocalDateTime endedAt;
+    private String playerClass;
+    private String race;
+    private int gold;
+    private int monstersDefeated;
+    private int treasuresCollected;
+    private int score;
+    private int placement;
+    private boolean winner;
+
+    public static MatchHistoryEntry fromResult(MatchResult result) {
+        Match match = result.getMatch();
+        return new MatchHistoryEntry(match.getId(), match.getRoomName(), match.getPlayerCount(),
+                match.getRoundsPlayed(), match.getWinnerName(), result.getEndedAt(), result.getPlayerClass(),
+                result.getRace(), result.getGold(), result.getMonstersDefeated(), result.getTreasuresCollected(),
+                result.getScore(), result.getPlacement(), result.isWinner());
+    }
+}
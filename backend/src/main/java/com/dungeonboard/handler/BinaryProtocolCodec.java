@@ -0,0 +1,616 @@
+package com.dungeonboard.handler;
+
+import com.dungeonboard.dto.ClientCommand;
+import com.dungeonboard.dto.CommandAck;
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.dto.GameStateDTO;
+import com.dungeonboard.dto.GameStateDelta;
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.board.TileType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoder/decoder for the binary game protocol (subprotocol {@value #BINARY_SUBPROTOCOL}).
+ * Integers are varints (zigzag for signed values), strings are a varint length plus UTF-8 bytes,
+ * and nullable strings store length + 1 so that 0 means null. Message types, game status and
+ * tile types are sent as the small codes defined here instead of names. Tiles carry only their
+ * position and type: a tile's description is fixed by its {@link TileType}, so binary clients look
+ * it up by type instead of receiving it with every snapshot.
+ * See the WebSocket section of the README for the frame layouts.
+ */
+public class BinaryProtocolCodec {
+
+    public static final String BINARY_SUBPROTOCOL = "dungeon-board.v1.bin";
+    public static final String JSON_SUBPROTOCOL = "dungeon-board.v1.json";
+
+    // Codes are the position in the list plus one; 0 means the name follows as a string
+    static final List<String> COMMAND_TYPES = List.of(
+            "JOIN_ROOM", "LEAVE_ROOM", "ROLL_DICE", "REROLL", "USE_ABILITY", "RESUME",
+            "SUBSCRIBE_LOBBY", "UNSUBSCRIBE_LOBBY", "SPECTATE", "FETCH_LOG");
+    static final List<String> EVENT_TYPES = List.of(
+            "GAME_STATE", "STATE_DELTA", "PLAYER_JOINED", "PLAYER_LEFT", "GAME_STARTED",
+            "DICE_ROLLED", "PLAYER_MOVED", "COMBAT_RESULT", "TREASURE_FOUND", "TRAP_TRIGGERED",
+            "EVENT_CARD", "ABILITY_USED", "TURN_SKIPPED", "GAME_OVER", "REDIRECT", "ERROR",
+            "STALE_STATE", "BATCH", "ACK", "LOBBY_SNAPSHOT", "LOBBY_UPDATE", "LOG");
+
+    // Kinds of GameEvent.data payloads
+    private static final int DATA_NONE = 0;
+    private static final int DATA_INT = 1;
+    private static final int DATA_BOOL = 2;
+    private static final int DATA_STRING = 3;
+    private static final int DATA_GAME_STATE = 4;
+    private static final int DATA_STATE_DELTA = 5;
+    private static final int DATA_JSON = 6;
+    private static final int DATA_EVENTS = 7;
+    private static final int DATA_ACK = 8;
+
+    // Command flags
+    private static final int HAS_EXPECTED_VERSION = 1;
+    private static final int HAS_COMMAND_ID = 1 << 1;
+    private static final int HAS_LAST_SEQ = 1 << 2;
+
+    // Player flags
+    private static final int PLAYER_HAS_ID = 1;
+    private static final int PLAYER_IS_BOT = 1 << 1;
+    private static final int PLAYER_IS_ALIVE = 1 << 2;
+
+    // Delta field mask, in encoding order
+    private static final int DELTA_KEYFRAME = 1;
+    private static final int DELTA_STATUS = 1 << 1;
+    private static final int DELTA_CURRENT_PLAYER = 1 << 2;
+    private static final int DELTA_ROUND = 1 << 3;
+    private static final int DELTA_MAX_ROUNDS = 1 << 4;
+    private static final int DELTA_LAST_EVENT = 1 << 5;
+    private static final int DELTA_WAITING_FOR_ROLL = 1 << 6;
+    private static final int DELTA_WINNER = 1 << 7;
+    private static final int DELTA_DEADLINE = 1 << 8;
+    private static final int DELTA_PLAYER_COUNT = 1 << 9;
+    private static final int DELTA_PLAYERS = 1 << 10;
+    private static final int DELTA_LOG_SEQ = 1 << 11;
+
+    private static final Map<String, Integer> TILE_TYPE_IDS = new HashMap<>();
+    private static final Map<Integer, TileType> TILE_TYPES_BY_ID = new HashMap<>();
+
+    static {
+        for (TileType tileType : TileType.values()) {
+            TILE_TYPE_IDS.put(tileType.getName(), tileType.getId());
+            TILE_TYPES_BY_ID.put(tileType.getId(), tileType);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public BinaryProtocolCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Frame: type code, [type name], nullable roomId, flags, [expectedVersion], [commandId], [lastSeq]
+     */
+    public ClientCommand decodeCommand(ByteBuffer buffer) {
+        Reader in = new Reader(buffer);
+        ClientCommand command = new ClientCommand();
+        command.setType(in.code(COMMAND_TYPES));
+        command.setRoomId(in.nullableString());
+        int flags = in.varint();
+        if ((flags & HAS_EXPECTED_VERSION) != 0) {
+            command.setExpectedVersion(in.varlong());
+        }
+        if ((flags & HAS_COMMAND_ID) != 0) {
+            command.setCommandId(in.string());
+        }
+        if ((flags & HAS_LAST_SEQ) != 0) {
+            command.setLastSeq(in.varlong());
+        }
+        return command;
+    }
+
+    /**
+     * Inverse of {@link #decodeCommand}, as a client writes commands
+     */
+    byte[] encodeCommand(ClientCommand command) {
+        Writer out = new Writer();
+        out.code(COMMAND_TYPES, command.getType());
+        out.nullableString(command.getRoomId());
+        int flags = (command.getExpectedVersion() != null ? HAS_EXPECTED_VERSION : 0)
+                | (command.getCommandId() != null ? HAS_COMMAND_ID : 0)
+                | (command.getLastSeq() != null ? HAS_LAST_SEQ : 0);
+        out.varint(flags);
+        if (command.getExpectedVersion() != null) {
+            out.varlong(command.getExpectedVersion());
+        }
+        if (command.getCommandId() != null) {
+            out.string(command.getCommandId());
+        }
+        if (command.getLastSeq() != null) {
+            out.varlong(command.getLastSeq());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Frame: type code, [type name], version, seq, nullable message, data kind, data
+     */
+    public byte[] encodeEvent(GameEvent event) throws JsonProcessingException {
+        Writer out = new Writer();
+        writeEvent(out, event);
+        return out.toByteArray();
+    }
+
+    private void writeEvent(Writer out, GameEvent event) throws JsonProcessingException {
+        out.code(EVENT_TYPES, event.getType());
+        out.varlong(event.getVersion());
+        out.varlong(event.getSeq());
+        out.nullableString(event.getMessage());
+        writeData(out, event.getType(), event.getData());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeData(Writer out, String type, Object data) throws JsonProcessingException {
+        if (data == null) {
+            out.varint(DATA_NONE);
+        } else if (data instanceof Integer || data instanceof Long) {
+            out.varint(DATA_INT);
+            out.signedVarlong(((Number) data).longValue());
+        } else if (data instanceof Boolean bool) {
+            out.varint(DATA_BOOL);
+            out.bool(bool);
+        } else if (data instanceof String string) {
+            out.varint(DATA_STRING);
+            out.string(string);
+        } else if (data instanceof GameStateDTO state) {
+            out.varint(DATA_GAME_STATE);
+            writeGameState(out, state);
+        } else if (data instanceof GameStateDelta delta) {
+            out.varint(DATA_STATE_DELTA);
+            writeDelta(out, delta);
+        } else if (data instanceof CommandAck ack) {
+            out.varint(DATA_ACK);
+            out.nullableString(ack.getCommandId());
+            out.bool(ack.isAccepted());
+            writeEvent(out, ack.getResult());
+        } else if ("BATCH".equals(type)) {
+            out.varint(DATA_EVENTS);
+            List<GameEvent> events = (List<GameEvent>) data;
+            out.varint(events.size());
+            for (GameEvent event : events) {
+                writeEvent(out, event);
+            }
+        } else {
+            // Rare payloads without a schema travel as embedded JSON
+            out.varint(DATA_JSON);
+            out.bytes(objectMapper.writeValueAsBytes(data));
+        }
+    }
+
+    private void writeGameState(Writer out, GameStateDTO state) {
+        out.nullableString(state.getRoomId());
+        out.varint(GameState.GameStatus.valueOf(state.getStatus()).ordinal());
+        out.varint(state.getPlayers().size());
+        for (GameStateDTO.SimplePlayer player : state.getPlayers()) {
+            writePlayer(out, player);
+        }
+        // Tiles are count + 1 so that 0 means the board was left out
+        List<GameStateDTO.SimpleTile> tiles = state.getTiles();
+        out.varint(tiles == null ? 0 : tiles.size() + 1);
+        if (tiles != null) {
+            for (GameStateDTO.SimpleTile tile : tiles) {
+                out.varint(tile.getPosition());
+                out.varint(TILE_TYPE_IDS.getOrDefault(tile.getType(), 0));
+            }
+        }
+        out.signedVarint(state.getCurrentPlayerIndex());
+        out.varint(state.getCurrentRound());
+        out.varint(state.getMaxRounds());
+        out.nullableString(state.getLastEvent());
+        out.bool(state.isWaitingForRoll());
+        out.nullableString(state.getWinnerId());
+        out.varlong(state.getVersion());
+        out.varlong(state.getTurnDeadlineAt());
+        out.varlong(state.getLogSeq());
+    }
+
+    private void writeDelta(Writer out, GameStateDelta delta) {
+        int mask = (delta.isKeyframe() ? DELTA_KEYFRAME : 0)
+                | (delta.getStatus() != null ? DELTA_STATUS : 0)
+                | (delta.getCurrentPlayerIndex() != null ? DELTA_CURRENT_PLAYER : 0)
+                | (delta.getCurrentRound() != null ? DELTA_ROUND : 0)
+                | (delta.getMaxRounds() != null ? DELTA_MAX_ROUNDS : 0)
+                | (delta.getLastEvent() != null ? DELTA_LAST_EVENT : 0)
+                | (delta.getWaitingForRoll() != null ? DELTA_WAITING_FOR_ROLL : 0)
+                | (delta.getWinnerId() != null ? DELTA_WINNER : 0)
+                | (delta.getTurnDeadlineAt() != null ? DELTA_DEADLINE : 0)
+                | (delta.getPlayerCount() != null ? DELTA_PLAYER_COUNT : 0)
+                | (delta.getPlayers() != null ? DELTA_PLAYERS : 0)
+                | (delta.getLogSeq() != null ? DELTA_LOG_SEQ : 0);
+        out.varint(mask);
+
+        if (delta.getStatus() != null) {
+            out.varint(GameState.GameStatus.valueOf(delta.getStatus()).ordinal());
+        }
+        if (delta.getCurrentPlayerIndex() != null) {
+            out.signedVarint(delta.getCurrentPlayerIndex());
+        }
+        if (delta.getCurrentRound() != null) {
+            out.varint(delta.getCurrentRound());
+        }
+        if (delta.getMaxRounds() != null) {
+            out.varint(delta.getMaxRounds());
+        }
+        if (delta.getLastEvent() != null) {
+            out.string(delta.getLastEvent());
+        }
+        if (delta.getWaitingForRoll() != null) {
+            out.bool(delta.getWaitingForRoll());
+        }
+        if (delta.getWinnerId() != null) {
+            out.string(delta.getWinnerId());
+        }
+        if (delta.getTurnDeadlineAt() != null) {
+            out.varlong(delta.getTurnDeadlineAt());
+        }
+        if (delta.getPlayerCount() != null) {
+            out.varint(delta.getPlayerCount());
+        }
+        if (delta.getPlayers() != null) {
+            out.varint(delta.getPlayers().size());
+            for (GameStateDelta.PlayerChange change : delta.getPlayers()) {
+                out.varint(change.getIndex());
+                writePlayer(out, change.getPlayer());
+            }
+        }
+        if (delta.getLogSeq() != null) {
+            out.varlong(delta.getLogSeq());
+        }
+    }
+
+    private void writePlayer(Writer out, GameStateDTO.SimplePlayer player) {
+        int flags = (player.getId() != null ? PLAYER_HAS_ID : 0)
+                | (player.isBot() ? PLAYER_IS_BOT : 0)
+                | (player.isAlive() ? PLAYER_IS_ALIVE : 0);
+        out.varint(flags);
+        if (player.getId() != null) {
+            // Bots have negative ids
+            out.signedVarlong(player.getId());
+        }
+        out.nullableString(player.getUsername());
+        out.nullableString(player.getPlayerClass());
+        out.nullableString(player.getRace());
+        out.varint(player.getPosition());
+        out.varint(player.getGold());
+        out.varint(player.getScore());
+        out.varint(player.getCurrentHp());
+        out.varint(player.getMaxHp());
+    }
+
+    /**
+     * Inverse of {@link #encodeEvent}, as a client reads events. Integer data comes back as an
+     * Integer when it fits, embedded JSON as maps and lists, tile descriptions from the tile type.
+     */
+    GameEvent decodeEvent(ByteBuffer buffer) {
+        return readEvent(new Reader(buffer));
+    }
+
+    private GameEvent readEvent(Reader in) {
+        String type = in.code(EVENT_TYPES);
+        long version = in.varlong();
+        long seq = in.varlong();
+        String message = in.nullableString();
+        return new GameEvent(type, readData(in), message, version, seq);
+    }
+
+    private Object readData(Reader in) {
+        int kind = in.varint();
+        switch (kind) {
+            case DATA_NONE:
+                return null;
+            case DATA_INT:
+                long value = in.signedVarlong();
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            case DATA_BOOL:
+                return in.bool();
+            case DATA_STRING:
+                return in.string();
+            case DATA_GAME_STATE:
+                return readGameState(in);
+            case DATA_STATE_DELTA:
+                return readDelta(in);
+            case DATA_ACK:
+                return new CommandAck(in.nullableString(), in.bool(), readEvent(in));
+            case DATA_EVENTS:
+                int count = in.count();
+                List<GameEvent> events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    events.add(readEvent(in));
+                }
+                return events;
+            case DATA_JSON:
+                try {
+                    return objectMapper.readValue(in.bytes(), Object.class);
+                } catch (IOException e) {
+                    throw new RuntimeException("Malformed binary message: bad embedded JSON", e);
+                }
+            default:
+                throw new RuntimeException("Malformed binary message: unknown data kind " + kind);
+        }
+    }
+
+    private GameStateDTO readGameState(Reader in) {
+        GameStateDTO state = new GameStateDTO();
+        state.setRoomId(in.nullableString());
+        state.setStatus(status(in.varint()));
+        int playerCount = in.count();
+        List<GameStateDTO.SimplePlayer> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(readPlayer(in));
+        }
+        state.setPlayers(players);
+        int tileCount = in.varint();
+        if (tileCount != 0) {
+            tileCount = in.count(tileCount - 1);
+            List<GameStateDTO.SimpleTile> tiles = new ArrayList<>(tileCount);
+            for (int i = 0; i < tileCount; i++) {
+                int position = in.varint();
+                TileType tileType = TILE_TYPES_BY_ID.get(in.varint());
+                if (tileType == null) {
+                    throw new RuntimeException("Malformed binary message: unknown tile type");
+                }
+                tiles.add(new GameStateDTO.SimpleTile(position, tileType.getName(), tileType.getDescription()));
+            }
+            state.setTiles(tiles);
+        }
+        state.setCurrentPlayerIndex(in.signedVarint());
+        state.setCurrentRound(in.varint());
+        state.setMaxRounds(in.varint());
+        state.setLastEvent(in.nullableString());
+        state.setWaitingForRoll(in.bool());
+        state.setWinnerId(in.nullableString());
+        state.setVersion(in.varlong());
+        state.setTurnDeadlineAt(in.varlong());
+        state.setLogSeq(in.varlong());
+        return state;
+    }
+
+    private GameStateDelta readDelta(Reader in) {
+        GameStateDelta delta = new GameStateDelta();
+        int mask = in.varint();
+        delta.setKeyframe((mask & DELTA_KEYFRAME) != 0);
+        if ((mask & DELTA_STATUS) != 0) {
+            delta.setStatus(status(in.varint()));
+        }
+        if ((mask & DELTA_CURRENT_PLAYER) != 0) {
+            delta.setCurrentPlayerIndex(in.signedVarint());
+        }
+        if ((mask & DELTA_ROUND) != 0) {
+            delta.setCurrentRound(in.varint());
+        }
+        if ((mask & DELTA_MAX_ROUNDS) != 0) {
+            delta.setMaxRounds(in.varint());
+        }
+        if ((mask & DELTA_LAST_EVENT) != 0) {
+            delta.setLastEvent(in.string());
+        }
+        if ((mask & DELTA_WAITING_FOR_ROLL) != 0) {
+            delta.setWaitingForRoll(in.bool());
+        }
+        if ((mask & DELTA_WINNER) != 0) {
+            delta.setWinnerId(in.string());
+        }
+        if ((mask & DELTA_DEADLINE) != 0) {
+            delta.setTurnDeadlineAt(in.varlong());
+        }
+        if ((mask & DELTA_PLAYER_COUNT) != 0) {
+            delta.setPlayerCount(in.varint());
+        }
+        if ((mask & DELTA_PLAYERS) != 0) {
+            int count = in.count();
+            List<GameStateDelta.PlayerChange> changes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                changes.add(new GameStateDelta.PlayerChange(in.varint(), readPlayer(in)));
+            }
+            delta.setPlayers(changes);
+        }
+        if ((mask & DELTA_LOG_SEQ) != 0) {
+            delta.setLogSeq(in.varlong());
+        }
+        return delta;
+    }
+
+    private GameStateDTO.SimplePlayer readPlayer(Reader in) {
+        int flags = in.varint();
+        GameStateDTO.SimplePlayer player = new GameStateDTO.SimplePlayer();
+        if ((flags & PLAYER_HAS_ID) != 0) {
+            player.setId(in.signedVarlong());
+        }
+        player.setBot((flags & PLAYER_IS_BOT) != 0);
+        player.setAlive((flags & PLAYER_IS_ALIVE) != 0);
+        player.setUsername(in.nullableString());
+        player.setPlayerClass(in.nullableString());
+        player.setRace(in.nullableString());
+        player.setPosition(in.varint());
+        player.setGold(in.varint());
+        player.setScore(in.varint());
+        player.setCurrentHp(in.varint());
+        player.setMaxHp(in.varint());
+        return player;
+    }
+
+    private static String status(int ordinal) {
+        GameState.GameStatus[] statuses = GameState.GameStatus.values();
+        if (ordinal < 0 || ordinal >= statuses.length) {
+            throw new RuntimeException("Malformed binary message: unknown status " + ordinal);
+        }
+        return statuses[ordinal].name();
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        void signedVarint(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void signedVarlong(long value) {
+            varlong((value << 1) ^ (value >> 63));
+        }
+
+        void bool(boolean value) {
+            out.write(value ? 1 : 0);
+        }
+
+        void bytes(byte[] bytes) {
+            varint(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void string(String value) {
+            bytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void nullableString(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            out.writeBytes(bytes);
+        }
+
+        void code(List<String> names, String name) {
+            int index = names.indexOf(name);
+            varint(index + 1);
+            if (index < 0) {
+                string(name);
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int varint() {
+            long value = varlong();
+            if (value > 0xFFFFFFFFL) {
+                throw new RuntimeException("Malformed binary message: varint out of range");
+            }
+            return (int) value;
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new RuntimeException("Malformed binary message: varint too long");
+        }
+
+        int signedVarint() {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long signedVarlong() {
+            long value = varlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        boolean bool() {
+            return next() != 0;
+        }
+
+        /**
+         * An element count; every element takes at least one byte, so more than remain is malformed
+         */
+        int count() {
+            return count(varint());
+        }
+
+        int count(int count) {
+            if (count < 0 || count > buffer.remaining()) {
+                throw new RuntimeException("Malformed binary message: bad count");
+            }
+            return count;
+        }
+
+        byte[] bytes() {
+            int length = varint();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new RuntimeException("Malformed binary message: truncated bytes");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        String string() {
+            return string(varint());
+        }
+
+        String nullableString() {
+            int length = varint();
+            return length == 0 ? null : string(length - 1);
+        }
+
+        String code(List<String> names) {
+            int code = varint();
+            if (code == 0) {
+                return string();
+            }
+            if (code < 0 || code > names.size()) {
+                throw new RuntimeException("Unknown message type code: " + code);
+            }
+            return names.get(code - 1);
+        }
+
+        private String string(int length) {
+            if (length < 0 || length > buffer.remaining()) {
+                throw new RuntimeException("Malformed binary message: truncated string");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private byte next() {
+            if (!buffer.hasRemaining()) {
+                throw new RuntimeException("Malformed binary message: truncated");
+            }
+            return buffer.get();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.dungeonboard.handler;
+
+import com.dungeonboard.dto.GameEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Turns outbound events into WebSocket messages for each {@link WireFormat}.
+ * A {@link Frame} serializes and compresses lazily and at most once per format,
+ * so a room broadcast costs one encoding per format in use, not one per session.
+ */
+@Component
+public class FrameEncoder {
+
+    private static final byte[] DATA_FIELD = "{\"data\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryProtocolCodec binaryCodec = new BinaryProtocolCodec(objectMapper);
+    private final int compressionThreshold;
+    private final ThreadLocal<Deflater> deflaters;
+
+    private final AtomicLong compressedFrames = new AtomicLong();
+    private final AtomicLong bytesBeforeCompression = new AtomicLong();
+    private final AtomicLong bytesAfterCompression = new AtomicLong();
+
+    public FrameEncoder(@Value("${game.websocket.compression-threshold:512}") int compressionThreshold,
+                        @Value("${game.websocket.compression-level:6}") int compressionLevel) {
+        this.compressionThreshold = compressionThreshold;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(compressionLevel, true));
+    }
+
+    public Frame frame(GameEvent event) {
+        return new Frame(event, null);
+    }
+
+    /**
+     * A frame for an event whose JSON form is already known, e.g. received from another node
+     */
+    public Frame frame(GameEvent event, String json) {
+        return new Frame(event, json);
+    }
+
+    /**
+     * A frame for an event whose data is already serialized, e.g. a cached state snapshot.
+     * Only the envelope is written here; binary formats still encode the event's data object.
+     */
+    public Frame frameWithData(GameEvent event, byte[] dataJson) throws IOException {
+        GameEvent envelope = new GameEvent(event.getType(), null, event.getMessage(), event.getVersion(), event.getSeq());
+        byte[] head = objectMapper.writeValueAsBytes(envelope);
+
+        // {"data":<dataJson>,<envelope fields>}
+        byte[] json = new byte[DATA_FIELD.length + dataJson.length + head.length];
+        System.arraycopy(DATA_FIELD, 0, json, 0, DATA_FIELD.length);
+        System.arraycopy(dataJson, 0, json, DATA_FIELD.length, dataJson.length);
+        json[DATA_FIELD.length + dataJson.length] = ',';
+        System.arraycopy(head, 1, json, DATA_FIELD.length + dataJson.length + 1, head.length - 1);
+
+        Frame frame = new Frame(event, new String(json, StandardCharsets.UTF_8));
+        frame.jsonBytes = json;
+        return frame;
+    }
+
+    public Stats getStats() {
+        return new Stats(compressionThreshold, compressedFrames.get(),
+                bytesBeforeCompression.get(), bytesAfterCompression.get());
+    }
+
+    private byte[] deflate(byte[] input) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            out.write(buffer, 0, length);
+        }
+        byte[] compressed = out.toByteArray();
+
+        compressedFrames.incrementAndGet();
+        bytesBeforeCompression.addAndGet(input.length);
+        bytesAfterCompression.addAndGet(compressed.length);
+        return compressed;
+    }
+
+    /**
+     * One event's encodings. Not thread-safe: build one per send.
+     */
+    public final class Frame {
+        private final GameEvent event;
+        private String json;
+        private byte[] jsonBytes;
+        private byte[] compressedJson;
+        private boolean compressionChecked;
+        private byte[] binary;
+        private byte[] flaggedBinary;
+
+        private Frame(GameEvent event, String json) {
+            this.event = event;
+            this.json = json;
+        }
+
+        /**
+         * A new message for one session; binary payloads are shared, their buffers are not
+         */
+        public WebSocketMessage<?> message(WireFormat format) throws IOException {
+            return switch (format) {
+                case JSON -> new TextMessage(json());
+                case JSON_DEFLATE -> compressedJson() != null
+                        ? new BinaryMessage(compressedJson())
+                        : new TextMessage(json());
+                case BINARY -> new BinaryMessage(binary());
+                case BINARY_DEFLATE -> new BinaryMessage(flaggedBinary());
+            };
+        }
+
+        private String json() throws IOException {
+            if (json == null) {
+                json = objectMapper.writeValueAsString(event);
+            }
+            return json;
+        }
+
+        /**
+         * The event as UTF-8 JSON, as published to other nodes
+         */
+        public byte[] jsonBytes() throws IOException {
+            if (jsonBytes == null) {
+                jsonBytes = json().getBytes(StandardCharsets.UTF_8);
+            }
+            return jsonBytes;
+        }
+
+        // Null when the frame is below the compression threshold
+        private byte[] compressedJson() throws IOException {
+            if (!compressionChecked) {
+                compressionChecked = true;
+                if (jsonBytes().length >= compressionThreshold) {
+                    compressedJson = deflate(jsonBytes());
+                }
+            }
+            return compressedJson;
+        }
+
+        private byte[] binary() throws IOException {
+            if (binary == null) {
+                binary = binaryCodec.encodeEvent(event);
+            }
+            return binary;
+        }
+
+        private byte[] flaggedBinary() throws IOException {
+            if (flaggedBinary == null) {
+                byte[] payload = binary();
+                boolean compress = payload.length >= compressionThreshold;
+                if (compress) {
+                    payload = deflate(payload);
+                }
+                flaggedBinary = new byte[payload.length + 1];
+                flaggedBinary[0] = (byte) (compress ? 1 : 0);
+                System.arraycopy(payload, 0, flaggedBinary, 1, payload.length);
+            }
+            return flaggedBinary;
+        }
+    }
+
+    public record Stats(int threshold, long compressedFrames, long bytesBeforeCompression, long bytesAfterCompression) {}
+}
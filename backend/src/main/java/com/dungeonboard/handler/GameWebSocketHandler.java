@@ -1,32 +1,116 @@
 package com.dungeonboard.handler;
 
+import com.dungeonboard.cluster.RemoteRoomClient;
+import com.dungeonboard.cluster.RoomDirectory;
+import com.dungeonboard.cluster.RoomEventBus;
+import com.dungeonboard.config.JwtHandshakeInterceptor;
+import com.dungeonboard.dto.ClientCommand;
+import com.dungeonboard.dto.CommandAck;
+import com.dungeonboard.dto.GameCommandRequest;
 import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.service.GameBroadcastService;
+import com.dungeonboard.service.GameService;
+import com.dungeonboard.service.LobbyService;
+import com.dungeonboard.service.RoomCommandExecutor;
+import com.dungeonboard.service.RoomLifecycleEvent;
+import com.dungeonboard.service.UserActivityWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Game WebSocket endpoint. Clients speak JSON text frames by default, or another {@link WireFormat}
+ * (compact binary protocol and/or compressed frames) chosen by the subprotocol they request.
+ * Sessions authenticated at the handshake can send game commands, which are applied on the
+ * room's executor and answered with an ACK carrying the client's command id.
+ * Spectators (SPECTATE) are read-only and are fed by {@link SpectatorFanout}, off the players' path.
+ * Rooms owned by another node either redirect the client there or, with cluster.remote-rooms=subscribe,
+ * are relayed from the owner through the {@link RoomEventBus}.
+ */
 @Component
-public class GameWebSocketHandler extends TextWebSocketHandler {
+public class GameWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
 
     private static final Logger logger = LoggerFactory.getLogger(GameWebSocketHandler.class);
     private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
     private final Map<String, String> sessionToRoomMap = new ConcurrentHashMap<>();
     private final Map<String, Map<String, WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
+    private final Set<String> remoteSubscriptions = ConcurrentHashMap.newKeySet();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryProtocolCodec binaryCodec = new BinaryProtocolCodec(objectMapper);
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    @Autowired
+    private RoomEventBus roomEventBus;
+
+    @Autowired
+    private RemoteRoomClient remoteRoomClient;
+
+    @Value("${cluster.remote-rooms:redirect}")
+    private String remoteRooms;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    @Autowired
+    private FrameEncoder frameEncoder;
+
+    @Autowired
+    private SpectatorFanout spectatorFanout;
+
+    @Lazy
+    @Autowired
+    private GameBroadcastService broadcastService;
+
+    @Lazy
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    @Autowired
+    private UserActivityWriter activityWriter;
+
+    @Lazy
+    @Autowired
+    private LobbyService lobbyService;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         logger.info("WebSocket connection established: {}", session.getId());
         sessions.put(session.getId(), session);
+        sessionWriter.open(session, () -> resync(session));
+
+        Long userId = userId(session);
+        if (userId != null) {
+            activityWriter.recordConnected(userId, username(session));
+        }
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return WireFormat.subprotocols();
     }
 
     @Override
@@ -35,36 +119,85 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         logger.info("Received message: {}", payload);
 
         try {
-            Map<String, Object> messageData = objectMapper.readValue(payload, Map.class);
-            String type = (String) messageData.get("type");
-            String roomId = (String) messageData.get("roomId");
-
-            // Associate session with room
-            if (roomId != null) {
-                sessionToRoomMap.put(session.getId(), roomId);
-                roomSessions.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(session.getId(), session);
-            }
+            handleCommand(session, objectMapper.readValue(payload, ClientCommand.class));
+        } catch (Exception e) {
+            logger.error("Error handling message", e);
+            sendError(session, "Error processing message: " + e.getMessage());
+        }
+    }
 
-            // Handle different message types
-            switch (type) {
-                case "JOIN_ROOM" -> handleJoinRoom(session, roomId);
-                case "LEAVE_ROOM" -> handleLeaveRoom(session, roomId);
-                case "ROLL_DICE" -> handleDiceRoll(session, roomId, messageData);
-                case "REROLL" -> handleReroll(session, roomId, messageData);
-                case "USE_ABILITY" -> handleUseAbility(session, roomId, messageData);
-            }
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        try {
+            ClientCommand command = binaryCodec.decodeCommand(message.getPayload());
+            logger.info("Received binary message: {}", command);
+            handleCommand(session, command);
         } catch (Exception e) {
             logger.error("Error handling message", e);
             sendError(session, "Error processing message: " + e.getMessage());
         }
     }
 
+    private void handleCommand(WebSocketSession session, ClientCommand command) {
+        String type = command.getType();
+        String roomId = command.getRoomId();
+
+        if (type == null) {
+            throw new RuntimeException("Message type is required");
+        }
+
+        Long userId = userId(session);
+        if (userId != null) {
+            activityWriter.recordSeen(userId, username(session));
+        }
+
+        // Room lives on another node: relay it from the owner, or tell the client where to reconnect
+        boolean remote = roomId != null && !roomDirectory.isLocal(roomId);
+        if (remote && (!"subscribe".equals(remoteRooms) || token(session) == null)) {
+            sendToSession(session, GameEvent.redirect(roomDirectory.ownerOf(roomId).webSocketUrl()));
+            return;
+        }
+
+        // Associate session with room; spectators stay out of the players' session list
+        if (roomId != null) {
+            sessionToRoomMap.put(session.getId(), roomId);
+            if ("SPECTATE".equals(type) || spectatorFanout.isSpectator(roomId, session)) {
+                Map<String, WebSocketSession> room = roomSessions.get(roomId);
+                if (room != null) {
+                    room.remove(session.getId());
+                }
+                spectatorFanout.addSpectator(roomId, session);
+            } else {
+                roomSessions.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(session.getId(), session);
+            }
+        }
+
+        if (remote) {
+            handleRemoteCommand(session, roomId, command);
+            return;
+        }
+
+        // Handle different message types
+        switch (type) {
+            case "JOIN_ROOM", "SPECTATE" -> handleJoinRoom(session, roomId);
+            case "RESUME" -> handleResume(session, roomId, command);
+            case "SUBSCRIBE_LOBBY" -> lobbyService.subscribe(session);
+            case "UNSUBSCRIBE_LOBBY" -> lobbyService.unsubscribe(session);
+            case "LEAVE_ROOM" -> handleLeaveRoom(session, roomId);
+            case "FETCH_LOG" -> handleFetchLog(session, roomId, command);
+            case "ROLL_DICE" -> handleDiceRoll(session, roomId, command);
+            case "REROLL" -> handleReroll(session, roomId, command);
+            case "USE_ABILITY" -> handleUseAbility(session, roomId, command);
+        }
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         logger.info("WebSocket connection closed: {}", session.getId());
 
         String roomId = sessionToRoomMap.remove(session.getId());
         if (roomId != null) {
+            spectatorFanout.removeSpectator(roomId, session);
             Map<String, WebSocketSession> room = roomSessions.get(roomId);
             if (room != null) {
                 room.remove(session.getId());
@@ -72,9 +205,17 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
                     roomSessions.remove(roomId);
                 }
             }
+            unsubscribeIfUnwatched(roomId);
         }
 
         sessions.remove(session.getId());
+        lobbyService.unsubscribe(session);
+        sessionWriter.close(session);
+
+        Long userId = userId(session);
+        if (userId != null) {
+            activityWriter.recordDisconnected(userId, username(session));
+        }
     }
 
     @Override
@@ -85,55 +226,228 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
     private void handleJoinRoom(WebSocketSession session, String roomId) {
         logger.info("Session {} joined room {}", session.getId(), roomId);
-        sendToRoom(roomId, GameEvent.playerJoined(null));
+        broadcastService.sendJoinSnapshot(roomId, session);
+    }
+
+    private void handleResume(WebSocketSession session, String roomId, ClientCommand command) {
+        logger.info("Session {} resumed room {} after seq {}", session.getId(), roomId, command.getLastSeq());
+        if (command.getLastSeq() == null) {
+            broadcastService.sendJoinSnapshot(roomId, session);
+        } else {
+            broadcastService.resume(roomId, session, command.getLastSeq());
+        }
+    }
+
+    private void resync(WebSocketSession session) {
+        String roomId = sessionToRoomMap.get(session.getId());
+        if (roomId == null) {
+            return;
+        }
+        if (remoteSubscriptions.contains(roomId)) {
+            remoteRoomClient.fetchSnapshot(roomId, token(session))
+                    .thenAccept(snapshot -> sendToSession(session, snapshot));
+        } else {
+            broadcastService.sendJoinSnapshot(roomId, session);
+        }
+    }
+
+    private void handleFetchLog(WebSocketSession session, String roomId, ClientCommand command) {
+        long afterSeq = command.getLastSeq() != null ? command.getLastSeq() : 0;
+        roomExecutor.submit(roomId, () -> gameService.getLog(roomId, afterSeq))
+                .whenComplete((entries, e) ->
+                        sendToSession(session, e == null ? GameEvent.log(entries) : GameEvent.error(e.getMessage())));
     }
 
     private void handleLeaveRoom(WebSocketSession session, String roomId) {
         logger.info("Session {} left room {}", session.getId(), roomId);
     }
 
-    private void handleDiceRoll(WebSocketSession session, String roomId, Map<String, Object> data) {
+    private void handleDiceRoll(WebSocketSession session, String roomId, ClientCommand command) {
         logger.info("Dice roll request from session {} in room {}", session.getId(), roomId);
-        // This will be handled by GameService
+        handleGameCommand(session, roomId, command, playerId ->
+                gameService.rollDice(roomId, playerId, command.getExpectedVersion(), command.getCommandId()));
     }
 
-    private void handleReroll(WebSocketSession session, String roomId, Map<String, Object> data) {
+    private void handleReroll(WebSocketSession session, String roomId, ClientCommand command) {
         logger.info("Reroll request from session {} in room {}", session.getId(), roomId);
-        // This will be handled by GameService
+        handleGameCommand(session, roomId, command, playerId ->
+                gameService.reroll(roomId, playerId, command.getExpectedVersion(), command.getCommandId()));
     }
 
-    private void handleUseAbility(WebSocketSession session, String roomId, Map<String, Object> data) {
+    private void handleUseAbility(WebSocketSession session, String roomId, ClientCommand command) {
         logger.info("Ability use request from session {} in room {}", session.getId(), roomId);
-        // This will be handled by GameService
+        handleGameCommand(session, roomId, command, playerId ->
+                gameService.useAbility(roomId, playerId, command.getExpectedVersion(), command.getCommandId()));
+    }
+
+    /**
+     * Apply a command as the session's user without blocking the socket thread.
+     * The ACK is sent after the command's broadcast, so the client already has the resulting state.
+     */
+    private void handleGameCommand(WebSocketSession session, String roomId, ClientCommand command,
+                                   Function<String, GameEvent> action) {
+        String commandId = command.getCommandId();
+        Object userId = session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        if (userId == null) {
+            sendToSession(session, GameEvent.commandAck(CommandAck.rejected(commandId, "User not authenticated")));
+            return;
+        }
+        if (roomId == null) {
+            sendToSession(session, GameEvent.commandAck(CommandAck.rejected(commandId, "Room id is required")));
+            return;
+        }
+        if (spectatorFanout.isSpectator(roomId, session)) {
+            sendToSession(session, GameEvent.commandAck(CommandAck.rejected(commandId, "Spectators cannot act")));
+            return;
+        }
+
+        roomExecutor.submit(roomId, () -> {
+            GameEvent result = action.apply(userId.toString());
+            roomExecutor.afterCommand(roomId, () ->
+                    sendToSession(session, GameEvent.commandAck(CommandAck.of(commandId, result))));
+            return result;
+        }).exceptionally(e -> {
+            sendToSession(session, GameEvent.commandAck(CommandAck.rejected(commandId, e.getMessage())));
+            return null;
+        });
+    }
+
+    /**
+     * Relay a room owned by another node: subscribe on the first local session, then send the owner's
+     * snapshot. Game commands go to the owner's REST endpoints as the session's user.
+     */
+    private void handleRemoteCommand(WebSocketSession session, String roomId, ClientCommand command) {
+        switch (command.getType()) {
+            case "JOIN_ROOM", "SPECTATE", "RESUME" -> {
+                // Relayed events carry the owner's seq, but the replay buffer lives there: always resync
+                if (remoteSubscriptions.add(roomId)) {
+                    roomEventBus.subscribe(roomId, frame -> deliverRemote(roomId, frame));
+                }
+                remoteRoomClient.fetchSnapshot(roomId, token(session))
+                        .whenComplete((snapshot, e) ->
+                                sendToSession(session, e == null ? snapshot : GameEvent.error("Room owner unavailable")));
+            }
+            case "LEAVE_ROOM" -> handleLeaveRoom(session, roomId);
+            case "FETCH_LOG" -> remoteRoomClient.fetchLog(roomId,
+                            command.getLastSeq() != null ? command.getLastSeq() : 0, token(session))
+                    .whenComplete((log, e) ->
+                            sendToSession(session, e == null ? log : GameEvent.error("Room owner unavailable")));
+            case "ROLL_DICE" -> forwardGameCommand(session, roomId, command, "roll");
+            case "REROLL" -> forwardGameCommand(session, roomId, command, "reroll");
+            case "USE_ABILITY" -> forwardGameCommand(session, roomId, command, "ability");
+        }
+    }
+
+    private void forwardGameCommand(WebSocketSession session, String roomId, ClientCommand command, String action) {
+        String commandId = command.getCommandId();
+        if (spectatorFanout.isSpectator(roomId, session)) {
+            sendToSession(session, GameEvent.commandAck(CommandAck.rejected(commandId, "Spectators cannot act")));
+            return;
+        }
+
+        GameCommandRequest request = new GameCommandRequest();
+        request.setExpectedVersion(command.getExpectedVersion());
+        request.setCommandId(commandId);
+        remoteRoomClient.forwardCommand(roomId, action, request, token(session))
+                .whenComplete((result, e) -> sendToSession(session, GameEvent.commandAck(e == null
+                        ? CommandAck.of(commandId, result)
+                        : CommandAck.rejected(commandId, "Room owner unavailable"))));
+    }
+
+    private void deliverRemote(String roomId, byte[] frame) {
+        try {
+            String json = new String(frame, StandardCharsets.UTF_8);
+            GameEvent event = remoteRoomClient.readEvent(frame);
+            if ("BATCH".equals(event.getType())) {
+                // Spectator fan-out flattens batches, so it needs the events themselves
+                event.setData(List.of(objectMapper.convertValue(event.getData(), GameEvent[].class)));
+            }
+
+            Map<String, WebSocketSession> room = roomSessions.get(roomId);
+            if (room != null) {
+                sendToSessions(room.values(), frameEncoder.frame(event, json));
+            }
+            spectatorFanout.publish(roomId, event);
+        } catch (Exception e) {
+            logger.error("Error relaying event for room {}", roomId, e);
+        }
+    }
+
+    private void unsubscribeIfUnwatched(String roomId) {
+        if (remoteSubscriptions.contains(roomId) && getSessionCountInRoom(roomId) == 0
+                && spectatorFanout.getSpectatorCount(roomId) == 0 && remoteSubscriptions.remove(roomId)) {
+            roomEventBus.unsubscribe(roomId);
+        }
+    }
+
+    private static String token(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.TOKEN_ATTRIBUTE);
+    }
+
+    private static Long userId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+    }
+
+    private static String username(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTRIBUTE);
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            roomEventBus.roomRemoved(event.roomId());
+        }
     }
 
     public void sendToRoom(String roomId, GameEvent event) {
+        // Each encoding and compression is produced at most once per event, only if some session uses it
+        FrameEncoder.Frame frame = frameEncoder.frame(event);
         Map<String, WebSocketSession> room = roomSessions.get(roomId);
         if (room != null) {
-            String message;
-            try {
-                message = objectMapper.writeValueAsString(event);
-                TextMessage textMessage = new TextMessage(message);
-
-                for (WebSocketSession session : room.values()) {
-                    if (session.isOpen()) {
-                        try {
-                            session.sendMessage(textMessage);
-                        } catch (IOException e) {
-                            logger.error("Error sending message to session {}", session.getId(), e);
-                        }
-                    }
+            sendToSessions(room.values(), frame);
+        }
+        spectatorFanout.publish(roomId, event);
+        if (!roomEventBus.hasSubscribers(roomId)) {
+            return;
+        }
+        try {
+            // Serialized once for every node relaying the room
+            roomEventBus.publish(roomId, frame.jsonBytes());
+        } catch (Exception e) {
+            logger.error("Error publishing event for room {}", roomId, e);
+        }
+    }
+
+    public void sendToSessions(Collection<WebSocketSession> recipients, GameEvent event) {
+        sendToSessions(recipients, frameEncoder.frame(event));
+    }
+
+    private void sendToSessions(Collection<WebSocketSession> recipients, FrameEncoder.Frame frame) {
+        try {
+            for (WebSocketSession session : recipients) {
+                if (session.isOpen()) {
+                    sessionWriter.send(session, frame.message(WireFormat.of(session)));
                 }
-            } catch (Exception e) {
-                logger.error("Error serializing game event", e);
             }
+        } catch (Exception e) {
+            logger.error("Error serializing game event", e);
         }
     }
 
     public void sendToSession(WebSocketSession session, GameEvent event) {
         try {
-            String message = objectMapper.writeValueAsString(event);
-            session.sendMessage(new TextMessage(message));
+            sessionWriter.send(session, frameEncoder.frame(event).message(WireFormat.of(session)));
+        } catch (Exception e) {
+            logger.error("Error sending message to session {}", session.getId(), e);
+        }
+    }
+
+    /**
+     * Send an event whose data is already serialized, e.g. a cached state snapshot
+     */
+    public void sendToSession(WebSocketSession session, GameEvent event, byte[] dataJson) {
+        try {
+            sessionWriter.send(session, frameEncoder.frameWithData(event, dataJson).message(WireFormat.of(session)));
         } catch (Exception e) {
             logger.error("Error sending message to session {}", session.getId(), e);
         }
@@ -141,9 +455,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
     private void sendError(WebSocketSession session, String errorMessage) {
         try {
-            GameEvent errorEvent = GameEvent.error(errorMessage);
-            String message = objectMapper.writeValueAsString(errorEvent);
-            session.sendMessage(new TextMessage(message));
+            sessionWriter.send(session, frameEncoder.frame(GameEvent.error(errorMessage)).message(WireFormat.of(session)));
         } catch (Exception e) {
             logger.error("Error sending error message", e);
         }
@@ -0,0 +1,339 @@
+package com.dungeonboard.handler;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes outbound WebSocket messages off the caller's thread.
+ * Each session has a bounded queue drained by one writer at a time, so callers never block on
+ * network I/O and a session never sees concurrent sends. When a slow client lets its queue fill up,
+ * the configured overflow policy decides what to give up.
+ * Sends are asynchronous where the container supports it, so a stalled client holds no writer
+ * thread. A send still in flight after the send time limit counts as an overflow too.
+ */
+@Component
+public class SessionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionWriter.class);
+
+    // Max messages an outbox writes before yielding its writer to other sessions
+    private static final int DRAIN_BATCH = 32;
+
+    public enum OverflowPolicy {
+        /** Evict the oldest queued message; the client sees a sequence gap and resyncs */
+        DROP_OLDEST,
+        /** Replace everything queued with a fresh snapshot of the session's room */
+        CONFLATE,
+        /** Close the session; the client reconnects and rejoins */
+        DISCONNECT
+    }
+
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitMs;
+
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong conflatedCount = new AtomicLong();
+    private final AtomicLong disconnectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+
+    public SessionWriter(@Value("${game.websocket.writer-threads:0}") int threads,
+                         @Value("${game.websocket.outbound-queue-capacity:256}") int capacity,
+                         @Value("${game.websocket.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                         @Value("${game.websocket.send-time-limit-ms:2000}") long sendTimeLimitMs) {
+        // Writers block on socket I/O, so default to more threads than cores
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "ws-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    /**
+     * Start buffering for a session. The resync callback runs when the CONFLATE policy has
+     * discarded the session's backlog and should queue a fresh snapshot in its place.
+     */
+    public void open(WebSocketSession session, Runnable resync) {
+        outboxes.put(session.getId(), new Outbox(session, resync));
+    }
+
+    /**
+     * Drop the session's queue; messages still queued are discarded
+     */
+    public void close(WebSocketSession session) {
+        Outbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) {
+            outbox.clear();
+        }
+    }
+
+    /**
+     * Queue a message for the session without waiting for it to be written
+     */
+    public void send(WebSocketSession session, WebSocketMessage<?> message) {
+        Outbox outbox = outboxes.get(session.getId());
+        if (outbox == null) {
+            // Session closed or never opened
+            return;
+        }
+        outbox.enqueue(message);
+    }
+
+    public Stats getStats() {
+        int queued = 0;
+        for (Outbox outbox : outboxes.values()) {
+            queued += outbox.depth();
+        }
+        return new Stats(outboxes.size(), queued, maxDepth.get(), capacity, overflowPolicy.name(), sendTimeLimitMs,
+                sentCount.get(), droppedCount.get(), conflatedCount.get(), disconnectedCount.get(), failedCount.get(),
+                timedOutCount.get());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writers.shutdown();
+        if (!writers.awaitTermination(5, TimeUnit.SECONDS)) {
+            writers.shutdownNow();
+        }
+    }
+
+    private final class Outbox implements Runnable {
+        private final WebSocketSession session;
+        private final Runnable resync;
+        private final RemoteEndpoint.Async asyncRemote; // Null when the container has no async sends
+        private final Deque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final AtomicLong sendingSince = new AtomicLong(); // Start of the send in flight, 0 if none
+
+        private Outbox(WebSocketSession session, Runnable resync) {
+            this.session = session;
+            this.resync = resync;
+            this.asyncRemote = asyncRemote(session);
+        }
+
+        private void enqueue(WebSocketMessage<?> message) {
+            OverflowPolicy overflow = null;
+            synchronized (queue) {
+                if (queue.size() >= capacity || sendTimedOut()) {
+                    overflow = overflowPolicy;
+                    switch (overflowPolicy) {
+                        case DROP_OLDEST -> {
+                            if (queue.pollFirst() != null) {
+                                droppedCount.incrementAndGet();
+                            }
+                            queue.addLast(message);
+                        }
+                        case CONFLATE -> {
+                            // The snapshot queued by resync supersedes this message too
+                            droppedCount.addAndGet(queue.size() + 1);
+                            queue.clear();
+                        }
+                        case DISCONNECT -> {
+                            droppedCount.addAndGet(queue.size() + 1);
+                            queue.clear();
+                        }
+                    }
+                } else {
+                    queue.addLast(message);
+                }
+                maxDepth.accumulateAndGet(queue.size(), Math::max);
+            }
+
+            if (overflow == OverflowPolicy.CONFLATE) {
+                conflatedCount.incrementAndGet();
+                // Off the caller's thread: the snapshot is built on the room's executor
+                writers.execute(resync);
+            } else if (overflow == OverflowPolicy.DISCONNECT) {
+                disconnectedCount.incrementAndGet();
+                logger.warn("Closing slow WebSocket session {}: outbound queue full", session.getId());
+                outboxes.remove(session.getId(), this);
+                writers.execute(this::closeSession);
+                return;
+            }
+            scheduleIfIdle();
+        }
+
+        /**
+         * True once the send in flight has run past the time limit. Re-arms the limit, so a stalled
+         * send triggers the overflow policy once per limit rather than on every message.
+         */
+        private boolean sendTimedOut() {
+            long since = sendingSince.get();
+            long now = System.currentTimeMillis();
+            if (since == 0 || now - since < sendTimeLimitMs || !sendingSince.compareAndSet(since, now)) {
+                return false;
+            }
+            timedOutCount.incrementAndGet();
+            logger.warn("Send to WebSocket session {} exceeded {} ms", session.getId(), sendTimeLimitMs);
+            return true;
+        }
+
+        private void scheduleIfIdle() {
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this);
+            }
+        }
+
+        private int depth() {
+            synchronized (queue) {
+                return queue.size();
+            }
+        }
+
+        private void clear() {
+            synchronized (queue) {
+                queue.clear();
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean sending = false;
+            try {
+                int budget = DRAIN_BATCH;
+                while (budget-- > 0) {
+                    WebSocketMessage<?> message;
+                    synchronized (queue) {
+                        message = queue.pollFirst();
+                    }
+                    if (message == null) {
+                        break;
+                    }
+                    if (asyncRemote != null && message.isLast() && session.isOpen()) {
+                        // The completion callback resumes draining; until then this outbox stays scheduled
+                        sending = writeAsync(message);
+                        if (sending) {
+                            return;
+                        }
+                    } else {
+                        write(message);
+                    }
+                }
+            } finally {
+                if (!sending) {
+                    scheduled.set(false);
+                    // Re-check after releasing: a producer may have enqueued while we were finishing
+                    if (depth() > 0) {
+                        scheduleIfIdle();
+                    }
+                }
+            }
+        }
+
+        private void write(WebSocketMessage<?> message) {
+            if (!session.isOpen()) {
+                return;
+            }
+            sendingSince.set(System.currentTimeMillis());
+            try {
+                session.sendMessage(message);
+                sentCount.incrementAndGet();
+            } catch (Exception e) {
+                failedCount.incrementAndGet();
+                logger.error("Error sending message to session {}", session.getId(), e);
+            } finally {
+                sendingSince.set(0);
+            }
+        }
+
+        /**
+         * Start sending without waiting for the client; false if the send could not be started
+         */
+        private boolean writeAsync(WebSocketMessage<?> message) {
+            SendHandler completion = result -> {
+                sendingSince.set(0);
+                if (result.isOK()) {
+                    sentCount.incrementAndGet();
+                } else {
+                    failedCount.incrementAndGet();
+                    logger.error("Error sending message to session {}", session.getId(), result.getException());
+                }
+                resume();
+            };
+            sendingSince.set(System.currentTimeMillis());
+            try {
+                if (message instanceof TextMessage text) {
+                    asyncRemote.sendText(text.getPayload(), completion);
+                } else if (message instanceof BinaryMessage binary) {
+                    asyncRemote.sendBinary(binary.getPayload(), completion);
+                } else {
+                    sendingSince.set(0);
+                    write(message);
+                    return false;
+                }
+                return true;
+            } catch (Exception e) {
+                sendingSince.set(0);
+                failedCount.incrementAndGet();
+                logger.error("Error sending message to session {}", session.getId(), e);
+                return false;
+            }
+        }
+
+        // Called on the container's thread when an async send completes
+        private void resume() {
+            try {
+                writers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                scheduled.set(false);
+            }
+        }
+
+        private void closeSession() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (Exception e) {
+                logger.error("Error closing session {}", session.getId(), e);
+            }
+        }
+    }
+
+    private static RemoteEndpoint.Async asyncRemote(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session standardSession = nativeSession.getNativeSession(Session.class);
+            if (standardSession != null) {
+                return standardSession.getAsyncRemote();
+            }
+        }
+        return null;
+    }
+
+    public record Stats(int sessions, int queued, int maxQueueDepth, int capacity, String overflowPolicy,
+                        long sendTimeLimitMs, long sent, long dropped, long conflated, long disconnected,
+                        long failed, long timedOut) {}
+}
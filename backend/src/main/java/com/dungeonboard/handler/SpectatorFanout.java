@@ -0,0 +1,192 @@
+package com.dungeonboard.handler;
+
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.service.RoomLifecycleEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-only spectator stream for rooms.
+ * The players' broadcast only hands each event over; a separate fan-out pool encodes it once per
+ * wire format and queues it for every spectator. With game.spectators.max-frames-per-second set,
+ * events arriving faster than that are delivered together as one BATCH frame.
+ */
+@Component
+public class SpectatorFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpectatorFanout.class);
+
+    @Autowired
+    private FrameEncoder frameEncoder;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService fanout;
+    private final long minFrameIntervalNanos;
+
+    private final Map<String, SpectatorChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong eventsSent = new AtomicLong();
+
+    public SpectatorFanout(@Qualifier("gameTimer") ScheduledExecutorService timer,
+                           @Value("${game.spectators.fanout-threads:2}") int threads,
+                           @Value("${game.spectators.max-frames-per-second:0}") int maxFramesPerSecond) {
+        this.timer = timer;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fanout = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "spectator-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.minFrameIntervalNanos = maxFramesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxFramesPerSecond : 0;
+    }
+
+    public void addSpectator(String roomId, WebSocketSession session) {
+        channels.computeIfAbsent(roomId, k -> new SpectatorChannel()).spectators.put(session.getId(), session);
+    }
+
+    public void removeSpectator(String roomId, WebSocketSession session) {
+        SpectatorChannel channel = channels.get(roomId);
+        if (channel != null) {
+            channel.spectators.remove(session.getId());
+        }
+    }
+
+    public boolean isSpectator(String roomId, WebSocketSession session) {
+        SpectatorChannel channel = channels.get(roomId);
+        return channel != null && channel.spectators.containsKey(session.getId());
+    }
+
+    public int getSpectatorCount(String roomId) {
+        SpectatorChannel channel = channels.get(roomId);
+        return channel != null ? channel.spectators.size() : 0;
+    }
+
+    /**
+     * Hand a room event to the spectator stream; never blocks the caller
+     */
+    public void publish(String roomId, GameEvent event) {
+        SpectatorChannel channel = channels.get(roomId);
+        if (channel == null || channel.spectators.isEmpty()) {
+            return;
+        }
+
+        long delayNanos;
+        synchronized (channel) {
+            channel.pending.add(event);
+            if (channel.flushScheduled) {
+                return;
+            }
+            channel.flushScheduled = true;
+            delayNanos = channel.lastFlushNanos + minFrameIntervalNanos - System.nanoTime();
+        }
+        scheduleFlush(channel, delayNanos);
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            channels.remove(event.roomId());
+        }
+    }
+
+    public Stats getStats() {
+        int spectators = 0;
+        for (SpectatorChannel channel : channels.values()) {
+            spectators += channel.spectators.size();
+        }
+        return new Stats(channels.size(), spectators, framesSent.get(), eventsSent.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdownNow();
+    }
+
+    private void flush(SpectatorChannel channel) {
+        List<GameEvent> events = new ArrayList<>();
+        synchronized (channel) {
+            for (GameEvent event : channel.pending) {
+                // Room batches are flattened so a coalesced frame stays one level deep
+                if ("BATCH".equals(event.getType()) && event.getData() instanceof List<?> batch) {
+                    batch.forEach(item -> events.add((GameEvent) item));
+                } else {
+                    events.add(event);
+                }
+            }
+            channel.pending.clear();
+            channel.lastFlushNanos = System.nanoTime();
+        }
+
+        // flushScheduled stays set until this frame is queued, so a room never has two flushes
+        // running at once and spectators see its events in order
+        send(channel, events);
+
+        long delayNanos;
+        synchronized (channel) {
+            if (channel.pending.isEmpty()) {
+                channel.flushScheduled = false;
+                return;
+            }
+            delayNanos = channel.lastFlushNanos + minFrameIntervalNanos - System.nanoTime();
+        }
+        scheduleFlush(channel, delayNanos);
+    }
+
+    private void scheduleFlush(SpectatorChannel channel, long delayNanos) {
+        if (delayNanos <= 0) {
+            fanout.execute(() -> flush(channel));
+        } else {
+            timer.schedule(() -> fanout.execute(() -> flush(channel)), delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void send(SpectatorChannel channel, List<GameEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            FrameEncoder.Frame frame = frameEncoder.frame(events.size() == 1 ? events.get(0) : GameEvent.batch(events));
+            for (WebSocketSession session : channel.spectators.values()) {
+                if (session.isOpen()) {
+                    sessionWriter.send(session, frame.message(WireFormat.of(session)));
+                }
+            }
+            framesSent.incrementAndGet();
+            eventsSent.addAndGet(events.size());
+        } catch (Exception e) {
+            logger.error("Error sending spectator frame", e);
+        }
+    }
+
+    private static final class SpectatorChannel {
+        private final Map<String, WebSocketSession> spectators = new ConcurrentHashMap<>();
+        // Guarded by the channel
+        private final List<GameEvent> pending = new ArrayList<>();
+        private boolean flushScheduled;
+        private long lastFlushNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    }
+
+    public record Stats(int rooms, int spectators, long framesSent, long eventsSent) {}
+}
@@ -0,0 +1,53 @@
+package com.dungeonboard.handler;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How events are framed for a session, chosen by the subprotocol it negotiated.
+ * The deflate variants compress frames at or above game.websocket.compression-threshold bytes
+ * once per broadcast in the application, instead of once per recipient in permessage-deflate.
+ */
+public enum WireFormat {
+    /** JSON text frames; also used when no subprotocol was negotiated */
+    JSON(BinaryProtocolCodec.JSON_SUBPROTOCOL),
+    /** JSON, with frames over the threshold sent as raw-deflated binary frames */
+    JSON_DEFLATE(BinaryProtocolCodec.JSON_SUBPROTOCOL + "+deflate"),
+    /** Binary protocol frames */
+    BINARY(BinaryProtocolCodec.BINARY_SUBPROTOCOL),
+    /** Binary protocol frames behind a flag byte: 0 = as is, 1 = raw-deflated */
+    BINARY_DEFLATE(BinaryProtocolCodec.BINARY_SUBPROTOCOL + "+deflate");
+
+    private final String subprotocol;
+
+    WireFormat(String subprotocol) {
+        this.subprotocol = subprotocol;
+    }
+
+    public String getSubprotocol() {
+        return subprotocol;
+    }
+
+    public boolean isCompressed() {
+        return this == JSON_DEFLATE || this == BINARY_DEFLATE;
+    }
+
+    public static WireFormat fromSubprotocol(String subprotocol) {
+        for (WireFormat format : values()) {
+            if (format.subprotocol.equals(subprotocol)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    public static WireFormat of(WebSocketSession session) {
+        return fromSubprotocol(session.getAcceptedProtocol());
+    }
+
+    public static List<String> subprotocols() {
+        return Arrays.stream(values()).map(WireFormat::getSubprotocol).toList();
+    }
+}
@@ -0,0 +1,519 @@
+package com.dungeonboard.journal;
+
+import com.dungeonboard.cluster.RoomDirectory;
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.Room;
+import com.dungeonboard.service.GameService;
+import com.dungeonboard.service.RoomCommandExecutor;
+import com.dungeonboard.service.RoomLifecycleEvent;
+import com.dungeonboard.service.RoomService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Durable per-node journal of in-flight games, so a restart or crash does not lose them.
+ * After every room command that changed the game version, the room's outcome is captured as a
+ * compact {@link RoomImageCodec} image on the room's worker and queued for one writer thread.
+ * The writer appends everything queued since its last write with a single FileChannel write and
+ * fsync (group commit), so commands never wait on the disk and busy periods cost one fsync per batch.
+ * <p>
+ * Once the journal grows past game.journal.snapshot-bytes, or game.journal.snapshot-interval-ms
+ * has passed, the latest image of every live room is written to a snapshot and the journal is
+ * truncated, which bounds both disk use and replay time. At startup, before the web server accepts
+ * requests, the snapshot and the journal records after it are replayed and every room is restored.
+ * <p>
+ * Records are framed as length, CRC32 and body (LSN, type, room id, image). A torn or corrupt tail
+ * left by a crash is cut off at the last intact record.
+ */
+@Component
+public class GameJournal implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameJournal.class);
+
+    static final byte TYPE_STATE = 1;
+    static final byte TYPE_REMOVED = 2;
+    private static final int SNAPSHOT_MAGIC = 0x44424A53; // "DBJS"
+    private static final int MAX_BATCH = 1024;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    @Lazy
+    @Autowired
+    private GameService gameService;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final boolean fsync;
+    private final long snapshotBytes;
+    private final long snapshotIntervalMs;
+
+    // Version of each room's last queued image. Written by capture() on the room's worker, seeded by
+    // recover() before the room is restored, and cleared on REMOVED by whichever thread publishes it
+    private final Map<String, Long> journaledVersions = new ConcurrentHashMap<>();
+    private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread writer;
+
+    // Writer thread only, after recovery
+    private FileChannel journal;
+    private final Map<String, byte[]> images = new HashMap<>();
+    private long lastLsn;
+    private long journalSize;
+    private long lastSnapshotAt;
+
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong snapshotCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile int liveRooms;
+    private volatile int recoveredRooms;
+    private volatile long replayedRecords;
+    private volatile long recoveryMs;
+
+    public GameJournal(@Value("${game.journal.enabled:true}") boolean enabled,
+                       @Value("${game.journal.directory:${java.io.tmpdir}/dungeon-board-journal}") String directory,
+                       @Value("${cluster.node-id:local}") String nodeId,
+                       @Value("${game.journal.fsync:true}") boolean fsync,
+                       @Value("${game.journal.snapshot-bytes:8388608}") long snapshotBytes,
+                       @Value("${game.journal.snapshot-interval-ms:60000}") long snapshotIntervalMs) {
+        this.enabled = enabled;
+        // One journal per node, so nodes sharing a disk never replay each other's rooms
+        this.directory = Path.of(directory, nodeId);
+        this.fsync = fsync;
+        this.snapshotBytes = snapshotBytes;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+    }
+
+    /**
+     * Before the web server starts (a lower phase), so no request sees a half-restored node
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open game journal in " + directory, e);
+        }
+
+        roomExecutor.addCommandListener(this::capture);
+        running = true;
+        writer = new Thread(this::writeLoop, "game-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Room workers, bot turns and turn deadlines outlive this phase, so room commands are stopped
+     * first; every capture is then queued before the writer drains the queue and exits.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (!roomExecutor.quiesce(5, TimeUnit.SECONDS)) {
+                logger.warn("Room commands still running as the game journal closes; later changes may be lost");
+            }
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (!running) {
+            return;
+        }
+        switch (event.type()) {
+            // Created outside the executor: a no-op command gets the new room captured in the room's order
+            case CREATED -> roomExecutor.submit(event.roomId(), () -> null);
+            case REMOVED -> {
+                journaledVersions.remove(event.roomId());
+                queue.add(new Record(TYPE_REMOVED, event.roomId(), null));
+            }
+            default -> {
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long commits = commitCount.get();
+        return new Stats(enabled, liveRooms, queue.size(), recordCount.get(), commits,
+                commits > 0 ? (double) recordCount.get() / commits : 0, maxBatchSize.get(),
+                commits > 0 ? totalCommitNanos.get() / commits / 1_000_000.0 : 0,
+                maxCommitNanos.get() / 1_000_000.0, bytesWritten.get(), snapshotCount.get(), failedCount.get(),
+                recoveredRooms, replayedRecords, recoveryMs);
+    }
+
+    /**
+     * Queue the room's image if a command changed it since the last one. Runs on the room's worker.
+     */
+    private void capture(String roomId) {
+        Room room = roomService.getRoom(roomId);
+        GameState gameState = roomService.getGameState(roomId);
+        if (room == null || gameState == null) {
+            return;
+        }
+
+        Long journaled = journaledVersions.get(roomId);
+        if (journaled != null && journaled == gameState.getVersion()) {
+            return;
+        }
+        journaledVersions.put(roomId, gameState.getVersion());
+        queue.add(new Record(TYPE_STATE, roomId, RoomImageCodec.encode(room, gameState)));
+    }
+
+    private void writeLoop() {
+        List<Record> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    // Everything queued while the previous fsync ran goes out in this commit
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+                if (journalSize >= snapshotBytes
+                        || (journalSize > 0 && System.currentTimeMillis() - lastSnapshotAt >= snapshotIntervalMs)) {
+                    snapshot();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                failedCount.addAndGet(batch.size());
+                batch.clear();
+                logger.error("Error writing game journal", e);
+            }
+        }
+
+        closeJournal();
+    }
+
+    void closeJournal() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Error closing game journal", e);
+        }
+    }
+
+    void commit(List<Record> batch) throws IOException {
+        long startedAt = System.nanoTime();
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        for (Record record : batch) {
+            frames.write(frame(++lastLsn, record));
+            if (record.type == TYPE_STATE) {
+                images.put(record.roomId, record.image);
+            } else {
+                images.remove(record.roomId);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (fsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            // Cut off a partial write, so later commits don't land behind a corrupt frame that stops replay
+            journal.truncate(journalSize);
+            journal.position(journalSize);
+            throw e;
+        }
+
+        long commitNanos = System.nanoTime() - startedAt;
+        journalSize += buffer.capacity();
+        liveRooms = images.size();
+        recordCount.addAndGet(batch.size());
+        commitCount.incrementAndGet();
+        bytesWritten.addAndGet(buffer.capacity());
+        totalCommitNanos.addAndGet(commitNanos);
+        maxCommitNanos.accumulateAndGet(commitNanos, Math::max);
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+    }
+
+    /**
+     * Write every live room's latest image with the LSN it is current as of, then drop the journal.
+     * A crash between the two leaves records the snapshot already covers, which replay skips by LSN.
+     */
+    void snapshot() throws IOException {
+        Path temp = directory.resolve("snapshot.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(lastLsn);
+            out.writeInt(images.size());
+            for (Map.Entry<String, byte[]> image : images.entrySet()) {
+                out.write(frame(lastLsn, new Record(TYPE_STATE, image.getKey(), image.getValue())));
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, snapshotFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be durable before the journal goes, or a crash could bring back the old snapshot
+        syncDirectory();
+
+        journal.truncate(0);
+        journal.position(0);
+        journal.force(true);
+        journalSize = 0;
+        lastSnapshotAt = System.currentTimeMillis();
+        snapshotCount.incrementAndGet();
+    }
+
+    private void recover() throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long replayed = replay();
+
+        int restored = 0;
+        Map<String, byte[]> live = new LinkedHashMap<>(images);
+        for (Map.Entry<String, byte[]> image : live.entrySet()) {
+            String roomId = image.getKey();
+            if (!roomDirectory.isLocal(roomId)) {
+                // Only for rooms whose id predates encoded owners, or after this node's id changed
+                logger.warn("Not restoring room {}: now owned by another node", roomId);
+                images.remove(roomId);
+                continue;
+            }
+            try {
+                RoomImageCodec.RoomImage decoded = RoomImageCodec.decode(image.getValue());
+                journaledVersions.put(roomId, decoded.gameState().getVersion());
+                roomService.restoreRoom(decoded.room(), decoded.gameState());
+                gameService.resumeGame(roomId);
+                restored++;
+            } catch (Exception e) {
+                logger.error("Cannot restore room {} from the game journal", roomId, e);
+                images.remove(roomId);
+            }
+        }
+
+        liveRooms = images.size();
+        recoveredRooms = restored;
+        replayedRecords = replayed;
+        recoveryMs = System.currentTimeMillis() - startedAt;
+        logger.info("Restored {} rooms from the game journal ({} records replayed) in {} ms",
+                restored, replayed, recoveryMs);
+    }
+
+    /**
+     * Load the snapshot and the journal records after it into the images map, cutting off a torn
+     * or corrupt tail, and leave the journal open for appending. Returns the records replayed.
+     */
+    long replay() throws IOException {
+        long snapshotLsn = 0;
+
+        Path snapshot = snapshotFile();
+        if (Files.exists(snapshot)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (buffer.remaining() < 16 || buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Corrupt game journal snapshot " + snapshot);
+            }
+            snapshotLsn = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Frame frame = readFrame(buffer);
+                if (frame == null) {
+                    throw new IOException("Corrupt game journal snapshot " + snapshot);
+                }
+                images.put(frame.roomId, frame.image);
+            }
+        }
+        lastLsn = snapshotLsn;
+
+        long replayed = 0;
+        Path journalFile = journalFile();
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // A journal created just now must not vanish in a crash along with the records fsynced into it
+        syncDirectory();
+        ByteBuffer buffer = ByteBuffer.allocate((int) journal.size());
+        while (buffer.hasRemaining() && journal.read(buffer) >= 0) {
+            // Read the whole file
+        }
+        buffer.flip();
+
+        Frame frame;
+        int intact = 0;
+        while ((frame = readFrame(buffer)) != null) {
+            intact = buffer.position();
+            if (frame.lsn <= snapshotLsn) {
+                continue;
+            }
+            if (frame.type == TYPE_STATE) {
+                images.put(frame.roomId, frame.image);
+            } else {
+                images.remove(frame.roomId);
+            }
+            lastLsn = frame.lsn;
+            replayed++;
+        }
+        if (intact < buffer.limit()) {
+            logger.warn("Discarding {} bytes of torn or corrupt game journal tail", buffer.limit() - intact);
+            journal.truncate(intact);
+            journal.force(true);
+        }
+        journal.position(intact);
+        journalSize = intact;
+        lastSnapshotAt = System.currentTimeMillis();
+        return replayed;
+    }
+
+    static byte[] frame(long lsn, Record record) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeLong(lsn);
+        out.writeByte(record.type);
+        out.writeUTF(record.roomId);
+        byte[] image = record.image != null ? record.image : new byte[0];
+        out.writeInt(image.length);
+        out.write(image);
+        byte[] bytes = body.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer frame = ByteBuffer.allocate(2 * Integer.BYTES + bytes.length);
+        frame.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return frame.array();
+    }
+
+    /**
+     * The next intact frame, or null at the end of the buffer or at a torn or corrupt frame
+     */
+    static Frame readFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int expectedCrc = buffer.getInt();
+        if (length < Long.BYTES + 1 || length > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != expectedCrc) {
+            buffer.position(start);
+            return null;
+        }
+
+        try {
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes));
+            long lsn = body.readLong();
+            byte type = body.readByte();
+            String roomId = body.readUTF();
+            byte[] image = new byte[body.readInt()];
+            body.readFully(image);
+            return new Frame(lsn, type, roomId, image);
+        } catch (IOException e) {
+            // Checksum matched but the body doesn't parse: treat it like any other corrupt frame
+            buffer.position(start);
+            return null;
+        }
+    }
+
+    /**
+     * Flush the directory's entries, which makes file creation and renames in it durable
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    Map<String, byte[]> images() {
+        return images;
+    }
+
+    long lastLsn() {
+        return lastLsn;
+    }
+
+    Path journalFile() {
+        return directory.resolve("journal.log");
+    }
+
+    Path snapshotFile() {
+        return directory.resolve("snapshot.bin");
+    }
+
+    record Record(byte type, String roomId, byte[] image) {}
+
+    record Frame(long lsn, byte type, String roomId, byte[] image) {}
+
+    public record Stats(boolean enabled, int rooms, int queued, long records, long commits, double avgBatch,
+                        long maxBatch, double avgCommitMs, double maxCommitMs, long bytesWritten, long snapshots,
+                        long failed, int recoveredRooms, long replayedRecords, long recoveryMs) {}
+}
@@ -0,0 +1,204 @@
+package com.dungeonboard.journal;
+
+import com.dungeonboard.model.GameLog;
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.Player;
+import com.dungeonboard.model.Room;
+import com.dungeonboard.model.character.Character;
+import com.dungeonboard.model.character.PlayerClass;
+import com.dungeonboard.model.character.Race;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary image of a room and its game state, as stored in the game journal.
+ * The board is rebuilt from its size, since tiles never change during a game; the room and the
+ * game state share one player list, so players are written once. Enums are stored by ordinal,
+ * so new constants must be appended.
+ */
+public final class RoomImageCodec {
+
+    private static final int FORMAT = 1;
+
+    private RoomImageCodec() {
+    }
+
+    public static byte[] encode(Room room, GameState gameState) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+
+            out.writeUTF(room.getRoomId());
+            writeNullable(out, room.getName());
+            out.writeUTF(room.getHostId());
+            out.writeInt(room.getMaxPlayers());
+            out.writeBoolean(room.isPrivate());
+            out.writeByte(room.getStatus().ordinal());
+            out.writeInt(room.getCurrentRound());
+            out.writeInt(room.getMaxRounds());
+            out.writeInt(room.getCurrentPlayerIndex());
+            out.writeLong(room.getCreatedAt());
+            out.writeInt(room.getTurnTimeoutSeconds());
+
+            List<Player> players = room.getPlayers();
+            out.writeShort(players.size());
+            for (Player player : players) {
+                writePlayer(out, player);
+            }
+
+            out.writeByte(gameState.getStatus().ordinal());
+            out.writeInt(gameState.getBoard().getSize());
+            out.writeInt(gameState.getCurrentPlayerIndex());
+            out.writeInt(gameState.getCurrentRound());
+            out.writeInt(gameState.getMaxRounds());
+            writeTime(out, gameState.getStartTime());
+            writeTime(out, gameState.getEndTime());
+            writeNullable(out, gameState.getWinnerId());
+            writeNullable(out, gameState.getLastEvent());
+            out.writeBoolean(gameState.isWaitingForRoll());
+            out.writeBoolean(gameState.isWaitingForReroll());
+            out.writeInt(gameState.getLastDiceRoll());
+            out.writeLong(gameState.getTurnDeadlineAt());
+            out.writeLong(gameState.getVersion());
+            gameState.getGameLog().writeTo(out);
+        } catch (IOException e) {
+            // In-memory stream; only reachable through a bug in the model
+            throw new RuntimeException("Cannot encode room " + room.getRoomId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static RoomImage decode(byte[] image) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(image));
+        int format = in.readUnsignedByte();
+        if (format != FORMAT) {
+            throw new IOException("Unknown room image format " + format);
+        }
+
+        String roomId = in.readUTF();
+        String name = readNullable(in);
+        String hostId = in.readUTF();
+        int maxPlayers = in.readInt();
+        boolean isPrivate = in.readBoolean();
+        Room room = new Room(roomId, name, hostId, maxPlayers, isPrivate);
+        room.setStatus(Room.RoomStatus.values()[in.readUnsignedByte()]);
+        room.setCurrentRound(in.readInt());
+        room.setMaxRounds(in.readInt());
+        room.setCurrentPlayerIndex(in.readInt());
+        room.setCreatedAt(in.readLong());
+        room.setTurnTimeoutSeconds(in.readInt());
+
+        int playerCount = in.readUnsignedShort();
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(readPlayer(in));
+        }
+        room.setPlayers(players);
+
+        GameState.GameStatus status = GameState.GameStatus.values()[in.readUnsignedByte()];
+        GameState gameState = new GameState(roomId, in.readInt());
+        gameState.setStatus(status);
+        gameState.setPlayers(players);
+        gameState.setCurrentPlayerIndex(in.readInt());
+        gameState.setCurrentRound(in.readInt());
+        gameState.setMaxRounds(in.readInt());
+        gameState.setStartTime(readTime(in));
+        gameState.setEndTime(readTime(in));
+        gameState.setWinnerId(readNullable(in));
+        gameState.setLastEvent(readNullable(in));
+        // Set after waitingForRoll: each setter clears the other flag when set
+        boolean waitingForRoll = in.readBoolean();
+        boolean waitingForReroll = in.readBoolean();
+        gameState.setWaitingForRoll(waitingForRoll);
+        gameState.setWaitingForReroll(waitingForReroll);
+        gameState.setLastDiceRoll(in.readInt());
+        gameState.setTurnDeadlineAt(in.readLong());
+        gameState.setVersion(in.readLong());
+        gameState.setGameLog(GameLog.readFrom(in));
+
+        return new RoomImage(room, gameState);
+    }
+
+    private static void writePlayer(DataOutputStream out, Player player) throws IOException {
+        out.writeLong(player.getId());
+        out.writeUTF(player.getUsername());
+        out.writeBoolean(player.isBot());
+        out.writeInt(player.getPosition());
+        out.writeInt(player.getSkipTurns());
+        out.writeInt(player.getGold());
+        out.writeInt(player.getScore());
+        out.writeInt(player.getMonstersDefeated());
+        out.writeInt(player.getTreasuresCollected());
+
+        Character character = player.getCharacter();
+        out.writeBoolean(character != null);
+        if (character != null) {
+            out.writeByte(character.getPlayerClass().ordinal());
+            out.writeByte(character.getRace().ordinal());
+            out.writeInt(character.getMaxHp());
+            out.writeInt(character.getCurrentHp());
+            out.writeInt(character.getAttack());
+            out.writeInt(character.getDefense());
+            out.writeBoolean(character.isAbilityUsedThisMatch());
+            out.writeBoolean(character.isAbilityUsedThisTurn());
+            out.writeInt(character.getRerollsUsedThisTurn());
+        }
+    }
+
+    private static Player readPlayer(DataInputStream in) throws IOException {
+        Player player = new Player(in.readLong(), in.readUTF(), in.readBoolean());
+        player.setPosition(in.readInt());
+        player.setSkipTurns(in.readInt());
+        player.setGold(in.readInt());
+        player.setScore(in.readInt());
+        player.setMonstersDefeated(in.readInt());
+        player.setTreasuresCollected(in.readInt());
+
+        if (in.readBoolean()) {
+            Character character = new Character(PlayerClass.values()[in.readUnsignedByte()],
+                    Race.values()[in.readUnsignedByte()]);
+            character.setMaxHp(in.readInt());
+            character.setCurrentHp(in.readInt());
+            character.setAttack(in.readInt());
+            character.setDefense(in.readInt());
+            character.setAbilityUsedThisMatch(in.readBoolean());
+            character.setAbilityUsedThisTurn(in.readBoolean());
+            character.setRerollsUsedThisTurn(in.readInt());
+            player.setCharacter(character);
+        }
+        return player;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    public record RoomImage(Room room, GameState gameState) {}
+}
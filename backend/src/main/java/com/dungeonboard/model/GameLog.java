@@ -0,0 +1,130 @@
+package com.dungeonboard.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring buffer of structured log entries: a {@link LogCode}, the acting player and
+ * two int arguments, in parallel arrays. Nothing is formatted when logging; entries are rendered
+ * to text only when a client fetches them. Players are stored as indexes into the log's own
+ * append-only roster, so entries keep their names even if the player list changes.
+ * Only written on the room's command executor.
+ */
+public class GameLog {
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final LogCode[] codes;
+    private final int[] players;
+    private final int[] firstArgs;
+    private final int[] secondArgs;
+    private final List<String> roster = new ArrayList<>();
+    private long sequence; // Entries ever logged; the newest entry's seq
+
+    public GameLog(int capacity) {
+        this.codes = new LogCode[capacity];
+        this.players = new int[capacity];
+        this.firstArgs = new int[capacity];
+        this.secondArgs = new int[capacity];
+    }
+
+    public void add(LogCode code, Player player) {
+        add(code, player, 0, 0);
+    }
+
+    public void add(LogCode code, Player player, int a) {
+        add(code, player, a, 0);
+    }
+
+    public void add(LogCode code, Player player, int a, int b) {
+        int slot = (int) (sequence % codes.length);
+        codes[slot] = code;
+        players[slot] = playerIndex(player);
+        firstArgs[slot] = a;
+        secondArgs[slot] = b;
+        sequence++;
+    }
+
+    /**
+     * The roster index to pass as an argument when an entry refers to a second player
+     */
+    public int playerIndex(Player player) {
+        String username = player.getUsername();
+        for (int i = 0; i < roster.size(); i++) {
+            if (roster.get(i).equals(username)) {
+                return i;
+            }
+        }
+        roster.add(username);
+        return roster.size() - 1;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int size() {
+        return (int) Math.min(sequence, codes.length);
+    }
+
+    /**
+     * Render the retained entries with a seq above afterSeq, oldest first.
+     * Entries already overwritten are skipped; the first seq returned shows whether any were missed.
+     */
+    public List<Entry> since(long afterSeq) {
+        long first = Math.max(afterSeq + 1, sequence - size() + 1);
+        List<Entry> entries = new ArrayList<>((int) Math.max(0, sequence - first + 1));
+        for (long seq = first; seq <= sequence; seq++) {
+            int slot = (int) ((seq - 1) % codes.length);
+            String player = roster.get(players[slot]);
+            entries.add(new Entry(seq, codes[slot].render(player, firstArgs[slot], secondArgs[slot], roster::get)));
+        }
+        return entries;
+    }
+
+    /**
+     * Write the roster and the retained entries in their structured form, for the game journal
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(codes.length);
+        out.writeLong(sequence);
+        out.writeInt(roster.size());
+        for (String username : roster) {
+            out.writeUTF(username);
+        }
+        for (long seq = sequence - size() + 1; seq <= sequence; seq++) {
+            int slot = (int) ((seq - 1) % codes.length);
+            out.writeByte(codes[slot].ordinal());
+            out.writeShort(players[slot]);
+            out.writeInt(firstArgs[slot]);
+            out.writeInt(secondArgs[slot]);
+        }
+    }
+
+    /**
+     * Rebuild a log written by {@link #writeTo}, with the same seqs
+     */
+    public static GameLog readFrom(DataInput in) throws IOException {
+        GameLog log = new GameLog(in.readInt());
+        long sequence = in.readLong();
+        int rosterSize = in.readInt();
+        for (int i = 0; i < rosterSize; i++) {
+            log.roster.add(in.readUTF());
+        }
+        int retained = (int) Math.min(sequence, log.codes.length);
+        for (long seq = sequence - retained + 1; seq <= sequence; seq++) {
+            int slot = (int) ((seq - 1) % log.codes.length);
+            log.codes[slot] = LogCode.values()[in.readUnsignedByte()];
+            log.players[slot] = in.readUnsignedShort();
+            log.firstArgs[slot] = in.readInt();
+            log.secondArgs[slot] = in.readInt();
+        }
+        log.sequence = sequence;
+        return log;
+    }
+
+    public record Entry(long seq, String text) {}
+}
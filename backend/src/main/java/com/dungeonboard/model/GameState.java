@@ -19,11 +19,15 @@ public class GameState {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String winnerId;
-    private List<String> gameLog;
+    private GameLog gameLog;
     private String lastEvent;
     private boolean waitingForRoll;
     private boolean waitingForReroll;
     private int lastDiceRoll;
+    private long turnDeadlineAt; // Epoch millis when the current human turn times out, 0 if none
+
+    // Bumped once per applied command; only written from the room's command executor
+    private volatile long version;
 
     public enum GameStatus {
         WAITING, IN_PROGRESS, FINISHED
@@ -37,10 +41,11 @@ public class GameState {
         this.currentPlayerIndex = 0;
         this.currentRound = 0;
         this.maxRounds = 10;
-        this.gameLog = new ArrayList<>();
+        this.gameLog = new GameLog(GameLog.DEFAULT_CAPACITY);
         this.waitingForRoll = false;
         this.waitingForReroll = false;
         this.lastDiceRoll = 0;
+        this.turnDeadlineAt = 0;
     }
 
     public Player getCurrentPlayer() {
@@ -62,15 +67,24 @@ public class GameState {
         getCurrentPlayer().decrementSkipTurns();
     }
 
+    public void bumpVersion() {
+        version++;
+    }
+
     public boolean isGameFinished() {
         return currentRound >= maxRounds || players.stream().filter(Player::isAlive).count() <= 1;
     }
 
-    public void addLog(String message) {
-        gameLog.add(message);
-        if (gameLog.size() > 100) {
-            gameLog.remove(0); // Keep only last 100 messages
-        }
+    public void log(LogCode code, Player player) {
+        gameLog.add(code, player);
+    }
+
+    public void log(LogCode code, Player player, int a) {
+        gameLog.add(code, player, a);
+    }
+
+    public void log(LogCode code, Player player, int a, int b) {
+        gameLog.add(code, player, a, b);
     }
 
     public void calculateFinalScores() {
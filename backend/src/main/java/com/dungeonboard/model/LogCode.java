@@ -0,0 +1,62 @@
+package com.dungeonboard.model;
+
+import com.dungeonboard.model.event.EventCardType;
+
+import java.util.function.IntFunction;
+
+/**
+ * Kinds of game log entries and how each one reads.
+ * An entry stores the acting player plus up to two int arguments; arguments documented as a
+ * player are indexes into the log's roster, resolved when the entry is rendered.
+ */
+public enum LogCode {
+    ROLLED((player, a, b, names) -> player + " rolled a " + a + "!"),
+    ELF_BONUS((player, a, b, names) -> player + " (Elf) moves +1 tile!"),
+    TURN_TIMED_OUT((player, a, b, names) -> player + " ran out of time and skipped their turn"),
+    REROLLED((player, a, b, names) -> player + " rerolled and got " + a + "!"),
+    MOVED((player, a, b, names) -> player + " moved to position " + a),
+    MONSTER_DEFEATED((player, a, b, names) ->
+            player + " defeated a level " + a + " monster and found " + b + " gold!"),
+    MONSTER_WON((player, a, b, names) ->
+            player + " was defeated by a level " + a + " monster and took " + b + " damage!"),
+    TREASURE((player, a, b, names) -> player + " found a treasure with " + a + " gold!"),
+    TRAP_IMMUNE((player, a, b, names) -> player + " (Goblin) is immune to traps!"),
+    TRAP((player, a, b, names) -> player + " triggered a trap and took " + a + " damage!"),
+    TELEPORTED((player, a, b, names) -> player + " was teleported to position " + a + "!"),
+    // a: EventCardType ordinal
+    EVENT_CARD((player, a, b, names) -> "Event card drawn: " + EventCardType.values()[a].getName()),
+    BLESSING((player, a, b, names) -> player + " received " + EventCardType.values()[a].getName() + " blessing!"),
+    HEALED((player, a, b, names) -> player + " healed for " + a + " HP!"),
+    // b: player robbed
+    STOLE((player, a, b, names) -> player + " stole " + a + " gold from " + names.apply(b) + "!"),
+    STUNNED((player, a, b, names) -> player + " is stunned and will skip next turn!"),
+    DROPPED_GOLD((player, a, b, names) -> player + " dropped " + a + " gold!"),
+    // a: the other player
+    SWAPPED((player, a, b, names) -> player + " swapped positions with " + names.apply(a) + "!"),
+    POISONED((player, a, b, names) -> player + " took " + a + " poison damage!"),
+    WARPED((player, a, b, names) -> player + " was warped to position " + a + "!"),
+    STUMBLED((player, a, b, names) -> player + " stumbled back to position " + a + "!"),
+    BOT_ABILITY((player, a, b, names) -> player + " (Bot) used their class ability!"),
+    BOT_AIMING((player, a, b, names) -> player + " (Bot) is aiming for position " + a),
+    WARRIOR_SHIELD((player, a, b, names) -> player + " used Warrior's Shield!"),
+    FIREBALL((player, a, b, names) -> player + " cast Fireball!"),
+    AIMED((player, a, b, names) -> player + " aims carefully!"),
+    SMITE((player, a, b, names) -> player + " used Paladin's Smite!"),
+    INSPIRING_SONG((player, a, b, names) -> player + " played an inspiring song!"),
+    LIFE_DRAIN((player, a, b, names) -> player + " used Life Drain!");
+
+    private final Renderer renderer;
+
+    LogCode(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    public String render(String player, int a, int b, IntFunction<String> names) {
+        return renderer.render(player, a, b, names);
+    }
+
+    @FunctionalInterface
+    private interface Renderer {
+        String render(String player, int a, int b, IntFunction<String> names);
+    }
+}
@@ -0,0 +1,46 @@
+package com.dungeonboard.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished game. Rows are inserted in batches by MatchHistoryWriter, so the id is assigned up front.
+ */
+@Entity
+@Table(name = "matches", indexes = {
+        @Index(name = "idx_matches_ended_at", columnList = "ended_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Match {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "room_id", nullable = false)
+    private String roomId;
+
+    @Column(name = "room_name")
+    private String roomName;
+
+    @Column(name = "player_count", nullable = false)
+    private int playerCount;
+
+    @Column(name = "rounds_played", nullable = false)
+    private int roundsPlayed;
+
+    @Column(name = "winner_name")
+    private String winnerName;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+}
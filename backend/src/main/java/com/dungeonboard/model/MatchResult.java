@@ -0,0 +1,73 @@
+package com.dungeonboard.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * One player's result in a finished match. ended_at is copied from the match so a user's
+ * history is read newest first straight from the (user_id, ended_at) index.
+ */
+@Entity
+@Table(name = "match_results", indexes = {
+        @Index(name = "idx_match_results_user_ended", columnList = "user_id, ended_at"),
+        @Index(name = "idx_match_results_match", columnList = "match_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "match_id", nullable = false)
+    private Match match;
+
+    // Null for bots
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "is_bot", nullable = false)
+    private boolean bot;
+
+    @Column(name = "player_class")
+    private String playerClass;
+
+    private String race;
+
+    @Column(nullable = false)
+    private int gold;
+
+    @Column(name = "monsters_defeated", nullable = false)
+    private int monstersDefeated;
+
+    @Column(name = "treasures_collected", nullable = false)
+    private int treasuresCollected;
+
+    @Column(nullable = false)
+    private int score;
+
+    @Column(nullable = false)
+    private int placement;
+
+    @Column(name = "is_winner", nullable = false)
+    private boolean winner;
+
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+}
@@ -18,6 +18,7 @@ public class Room {
     private int maxRounds;
     private int currentPlayerIndex;
     private long createdAt;
+    private int turnTimeoutSeconds; // 0 disables turn deadlines
 
     public enum RoomStatus {
         WAITING, IN_PROGRESS, FINISHED
@@ -33,6 +33,10 @@ public class User {
     @Column(name = "is_online", nullable = false)
     private Boolean isOnline = false;
 
+    // Written behind by UserActivityWriter, so may lag the live value by a flush interval
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
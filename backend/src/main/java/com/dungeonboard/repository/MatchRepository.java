@@ -0,0 +1,9 @@
+package com.dungeonboard.repository;
+
+import com.dungeonboard.model.Match;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MatchRepository extends JpaRepository<Match, String> {
+}
@@ -0,0 +1,22 @@
+package com.dungeonboard.repository;
+
+import com.dungeonboard.model.MatchResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MatchResultRepository extends JpaRepository<MatchResult, Long> {
+
+    // Newest first, paged on the (user_id, ended_at) index; the match row comes along in the same query
+    @Query(value = "select r from MatchResult r join fetch r.match where r.userId = :userId order by r.endedAt desc, r.id desc",
+            countQuery = "select count(r) from MatchResult r where r.userId = :userId")
+    Page<MatchResult> findHistory(@Param("userId") Long userId, Pageable pageable);
+
+    List<MatchResult> findByMatchIdOrderByPlacement(String matchId);
+}
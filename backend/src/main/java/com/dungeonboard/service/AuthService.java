@@ -1,5 +1,6 @@
 package com.dungeonboard.service;
 
+import com.dungeonboard.config.AuthenticatedUser;
 import com.dungeonboard.config.JwtUtil;
 import com.dungeonboard.dto.LoginRequest;
 import com.dungeonboard.dto.RegisterRequest;
@@ -14,6 +15,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
@@ -30,47 +32,77 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    public User authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtil.generateJwtToken(authentication);
+    @Autowired
+    private UserCache userCache;
 
-        User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
-        if (user != null) {
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-        }
+    @Autowired
+    private UserActivityWriter activityWriter;
 
-        return user;
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    /**
+     * Check the credentials on the password hashing pool; fails with a RejectedException when it is saturated
+     */
+    public CompletableFuture<User> authenticateUser(LoginRequest loginRequest) {
+        return hashingExecutor.submit(() -> {
+            // The token is stateless, so the result only matters for the exception on bad credentials
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+
+            User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
+            if (user != null) {
+                // Persisted in the next activity batch rather than a write per login
+                user.setLastLogin(LocalDateTime.now());
+                activityWriter.recordLogin(user.getId(), user.getUsername());
+            }
+
+            return user;
+        });
     }
 
-    public User registerUser(RegisterRequest signUpRequest) {
+    /**
+     * Hash the new password on the password hashing pool; fails with a RejectedException when it is saturated
+     */
+    public CompletableFuture<User> registerUser(RegisterRequest signUpRequest) {
+        // Cheap check first, so a taken name never costs a hash
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
+            return CompletableFuture.failedFuture(new RuntimeException("Username is already taken!"));
         }
 
-        User user = new User();
-        user.setUsername(signUpRequest.getUsername());
-        user.setPassword(encoder.encode(signUpRequest.getPassword()));
+        return hashingExecutor.submit(() -> {
+            User user = new User();
+            user.setUsername(signUpRequest.getUsername());
+            user.setPassword(encoder.encode(signUpRequest.getPassword()));
 
-        return userRepository.save(user);
+            return userRepository.save(user);
+        });
     }
 
-    public String generateToken(String username) {
-        return jwtUtil.generateJwtToken(username);
+    public String generateToken(User user) {
+        return jwtUtil.generateJwtToken(user);
     }
 
-    public User getCurrentUser() {
+    /**
+     * The request's user from the token's claims; null when unauthenticated
+     */
+    public AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            return userRepository.findByUsername(authentication.getName()).orElse(null);
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
         }
         return null;
     }
 
+    /**
+     * The request's full User entity, from the user cache
+     */
+    public User getCurrentUserEntity() {
+        AuthenticatedUser user = getCurrentUser();
+        return user != null ? userCache.getByUsername(user.getUsername()) : null;
+    }
+
     public void logoutUser() {
         SecurityContextHolder.clearContext();
     }
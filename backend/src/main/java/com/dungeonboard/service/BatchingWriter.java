@@ -0,0 +1,106 @@
+package com.dungeonboard.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for write-behind buffers. Subclasses keep their own pending entries and write them in
+ * {@link #writePending()}, which runs on a dedicated flush thread every flush interval, sooner once
+ * a batch is pending, and once more on shutdown. Flushes never overlap.
+ */
+public abstract class BatchingWriter {
+
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    protected BatchingWriter(String threadName, long flushIntervalMs, int batchSize) {
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        // Own thread: a slow database must not hold up the game timer
+        AtomicInteger threadCount = new AtomicInteger();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Write whatever is pending, counting each batch with {@link #batchWritten} or {@link #batchFailed}
+     */
+    protected abstract void writePending();
+
+    /**
+     * Count one recorded entry and flush early once pending reaches the batch size
+     */
+    protected void recorded(int pending) {
+        recorded.incrementAndGet();
+        if (pending >= batchSize && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    protected void batchWritten(int size) {
+        written.addAndGet(size);
+        batches.incrementAndGet();
+    }
+
+    protected void batchFailed(int size) {
+        failed.addAndGet(size);
+    }
+
+    protected int getBatchSize() {
+        return batchSize;
+    }
+
+    protected long getRecorded() {
+        return recorded.get();
+    }
+
+    protected long getWritten() {
+        return written.get();
+    }
+
+    protected long getBatches() {
+        return batches.get();
+    }
+
+    protected long getFailed() {
+        return failed.get();
+    }
+
+    private synchronized void flush() {
+        writePending();
+    }
+}
@@ -3,6 +3,7 @@ package com.dungeonboard.service;
 import com.dungeonboard.dto.GameEvent;
 import com.dungeonboard.handler.GameWebSocketHandler;
 import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
 import com.dungeonboard.model.Player;
 import com.dungeonboard.model.board.Tile;
 import com.dungeonboard.model.board.TileType;
@@ -37,12 +38,23 @@ public class BotAIService {
     @Autowired
     private GameWebSocketHandler webSocketHandler;
 
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
     private final Random random = new Random();
 
     /**
-     * Execute a bot's turn using AI decision-making
+     * Execute a bot's turn using AI decision-making.
+     * The turn is queued on the room's command executor so it never races player commands.
      */
     public void executeBotTurn(String roomId, String botId) {
+        roomExecutor.submit(roomId, () -> {
+            takeBotTurn(roomId, botId);
+            return null;
+        });
+    }
+
+    private void takeBotTurn(String roomId, String botId) {
         try {
             GameState gameState = roomService.getGameState(roomId);
             if (gameState == null) {
@@ -81,7 +93,7 @@ public class BotAIService {
         if (shouldUseAbility(gameState, bot)) {
             try {
                 characterService.useCharacterAbility(gameState, bot.getId().toString());
-                gameState.addLog(bot.getUsername() + " (Bot) used their class ability!");
+                gameState.log(LogCode.BOT_ABILITY, bot);
             } catch (Exception e) {
                 logger.debug("Bot could not use ability: {}", e.getMessage());
             }
@@ -150,7 +162,7 @@ public class BotAIService {
 
         // Log strategic thought process
         if (bestTileScore > 0) {
-            gameState.addLog(bot.getUsername() + " (Bot) is aiming for position " + targetPosition);
+            gameState.log(LogCode.BOT_AIMING, bot, targetPosition);
         }
     }
 
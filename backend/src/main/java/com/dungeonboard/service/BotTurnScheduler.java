@@ -0,0 +1,125 @@
+package com.dungeonboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules delayed bot turns on the shared game timer.
+ * At most one bot turn is pending per room; scheduling again reschedules it,
+ * and the pending turn is cancelled when the room finishes or is removed.
+ */
+@Component
+public class BotTurnScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BotTurnScheduler.class);
+
+    @Autowired
+    private BotAIService botAIService;
+
+    private final ScheduledExecutorService timer;
+    private final long turnDelayMs;
+    private final long lateThresholdMs;
+
+    private final Map<String, PendingTurn> pendingTurns = new ConcurrentHashMap<>();
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong firedCount = new AtomicLong();
+    private final AtomicLong lateCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong maxLatenessMs = new AtomicLong();
+
+    public BotTurnScheduler(@Qualifier("gameTimer") ScheduledExecutorService timer,
+                            @Value("${game.bot.turn-delay-ms:1500}") long turnDelayMs,
+                            @Value("${game.bot.late-threshold-ms:250}") long lateThresholdMs) {
+        this.timer = timer;
+        this.turnDelayMs = turnDelayMs;
+        this.lateThresholdMs = lateThresholdMs;
+    }
+
+    /**
+     * Schedule a bot turn for the room, replacing any turn already pending there
+     */
+    public void schedule(String roomId, String botId) {
+        PendingTurn turn = new PendingTurn(botId, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(turnDelayMs));
+        // Register before scheduling so a fast-firing task always finds itself
+        PendingTurn previous = pendingTurns.put(roomId, turn);
+        if (previous != null) {
+            previous.cancel();
+            cancelledCount.incrementAndGet();
+        }
+
+        turn.future = timer.schedule(() -> fire(roomId, turn), turnDelayMs, TimeUnit.MILLISECONDS);
+        scheduledCount.incrementAndGet();
+    }
+
+    /**
+     * Cancel the room's pending bot turn, if any
+     */
+    public void cancel(String roomId) {
+        PendingTurn turn = pendingTurns.remove(roomId);
+        if (turn != null) {
+            turn.cancel();
+            cancelledCount.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.FINISHED || event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            cancel(event.roomId());
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(pendingTurns.size(), scheduledCount.get(), firedCount.get(),
+                lateCount.get(), cancelledCount.get(), maxLatenessMs.get());
+    }
+
+    private void fire(String roomId, PendingTurn turn) {
+        // Lost the race against cancel() or a reschedule
+        if (!pendingTurns.remove(roomId, turn)) {
+            return;
+        }
+
+        long latenessMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - turn.dueAtNanos);
+        maxLatenessMs.accumulateAndGet(latenessMs, Math::max);
+        if (latenessMs > lateThresholdMs) {
+            lateCount.incrementAndGet();
+            logger.warn("Bot turn in room {} fired {} ms late", roomId, latenessMs);
+        }
+
+        firedCount.incrementAndGet();
+        botAIService.executeBotTurn(roomId, turn.botId);
+    }
+
+    private static final class PendingTurn {
+        private final String botId;
+        private final long dueAtNanos;
+        private volatile ScheduledFuture<?> future;
+
+        private PendingTurn(String botId, long dueAtNanos) {
+            this.botId = botId;
+            this.dueAtNanos = dueAtNanos;
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    public record Stats(int queued, long scheduled, long fired, long late, long cancelled, long maxLatenessMs) {}
+}
@@ -2,6 +2,7 @@ package com.dungeonboard.service;
 
 import com.dungeonboard.dto.CharacterSelectionRequest;
 import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
 import com.dungeonboard.model.Player;
 import com.dungeonboard.model.character.Character;
 import com.dungeonboard.model.character.PlayerClass;
@@ -63,12 +64,12 @@ public class CharacterService {
                 if (!character.isAbilityUsedThisMatch()) {
                     // Shield ability - temporary defense boost
                     character.setAbilityUsedThisMatch(true);
-                    gameState.addLog(player.getUsername() + " used Warrior's Shield!");
+                    gameState.log(LogCode.WARRIOR_SHIELD, player);
                 }
             }
             case MAGE -> {
                 // Fireball - deal damage to monsters in next 3 tiles
-                gameState.addLog(player.getUsername() + " cast Fireball!");
+                gameState.log(LogCode.FIREBALL, player);
             }
             case ROGUE -> {
                 // Steal gold from player on same tile
@@ -77,23 +78,23 @@ public class CharacterService {
                     int stolenGold = Math.min(10, target.getGold());
                     target.removeGold(stolenGold);
                     player.addGold(stolenGold);
-                    gameState.addLog(player.getUsername() + " stole " + stolenGold + " gold from " + target.getUsername() + "!");
+                    gameState.log(LogCode.STOLE, player, stolenGold, gameState.getGameLog().playerIndex(target));
                 }
             }
             case CLERIC -> {
                 // Heal self
                 character.heal(20);
-                gameState.addLog(player.getUsername() + " healed for 20 HP!");
+                gameState.log(LogCode.HEALED, player, 20);
             }
             case RANGER -> {
                 // Passive ability - critical hit on 6 roll
-                gameState.addLog(player.getUsername() + " aims carefully!");
+                gameState.log(LogCode.AIMED, player);
             }
             case PALADIN -> {
                 if (!character.isAbilityUsedThisMatch()) {
                     // Smite - bonus damage against monsters
                     character.setAbilityUsedThisMatch(true);
-                    gameState.addLog(player.getUsername() + " used Paladin's Smite!");
+                    gameState.log(LogCode.SMITE, player);
                 }
             }
             case BARD -> {
@@ -103,11 +104,11 @@ public class CharacterService {
                         p.getCharacter().heal(5);
                     }
                 });
-                gameState.addLog(player.getUsername() + " played an inspiring song!");
+                gameState.log(LogCode.INSPIRING_SONG, player);
             }
             case NECROMANCER -> {
                 // Drain life from monsters
-                gameState.addLog(player.getUsername() + " used Life Drain!");
+                gameState.log(LogCode.LIFE_DRAIN, player);
             }
         }
     }
@@ -0,0 +1,39 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.dto.GameEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of command results for one room, keyed by client command id.
+ * Entries are evicted in insertion order once the ring is full.
+ * Writes only happen on the room's command executor; reads are lock-free from any thread.
+ */
+class CommandResultCache {
+
+    private final String[] ring;
+    private final Map<String, GameEvent> results = new ConcurrentHashMap<>();
+    private int next;
+
+    CommandResultCache(int capacity) {
+        this.ring = new String[capacity];
+    }
+
+    GameEvent get(String key) {
+        return results.get(key);
+    }
+
+    void put(String key, GameEvent result) {
+        if (results.putIfAbsent(key, result) != null) {
+            return;
+        }
+
+        String evicted = ring[next];
+        if (evicted != null) {
+            results.remove(evicted);
+        }
+        ring[next] = key;
+        next = (next + 1) % ring.length;
+    }
+}
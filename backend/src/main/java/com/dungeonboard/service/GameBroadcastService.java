@@ -0,0 +1,189 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.dto.GameStateDTO;
+import com.dungeonboard.dto.GameStateDelta;
+import com.dungeonboard.handler.GameWebSocketHandler;
+import com.dungeonboard.model.GameState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends room events to connected sessions.
+ * Game state goes out as deltas against what the room last received, with a keyframe every
+ * game.broadcast.keyframe-interval updates. Every room event carries a sequence number so
+ * clients can detect gaps. Events published during one room command go out together as a single
+ * BATCH frame when the command finishes. The most recent game.broadcast.replay-buffer events are
+ * kept per room so a reconnecting client can resume from its last sequence number.
+ * Publishing must happen on the room's command executor.
+ */
+@Service
+public class GameBroadcastService {
+
+    @Autowired
+    private GameWebSocketHandler webSocketHandler;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    @Autowired
+    private GameStateSnapshotCache snapshotCache;
+
+    @Value("${game.broadcast.keyframe-interval:20}")
+    private int keyframeInterval;
+
+    @Value("${game.broadcast.replay-buffer:256}")
+    private int replayBufferSize;
+
+    private final Map<String, RoomChannel> channels = new ConcurrentHashMap<>();
+
+    public void publish(String roomId, GameEvent event) {
+        RoomChannel channel = channel(roomId);
+        channel.pending.add(event.withSeq(++channel.seq));
+        channel.recent.addLast(event);
+        if (channel.recent.size() > replayBufferSize) {
+            channel.recent.removeFirst();
+        }
+        if (channel.pending.size() == 1) {
+            roomExecutor.afterCommand(roomId, () -> flush(roomId, channel));
+        }
+    }
+
+    /**
+     * Broadcast whatever changed in the game state since the room's last state broadcast
+     */
+    public void publishState(String roomId, GameState gameState) {
+        RoomChannel channel = channel(roomId);
+        GameStateDTO current = GameStateDTO.fromGameState(gameState, false);
+
+        boolean keyframe = channel.lastState == null || channel.deltasSinceKeyframe >= keyframeInterval;
+        GameStateDelta delta = GameStateDelta.between(keyframe ? null : channel.lastState, current);
+
+        channel.lastState = current;
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        channel.deltasSinceKeyframe = keyframe ? 0 : channel.deltasSinceKeyframe + 1;
+        publish(roomId, GameEvent.stateDelta(delta).withVersion(gameState.getVersion()));
+    }
+
+    /**
+     * Send a joining session the full state, including the board, tagged with the room's current sequence.
+     * Everyone else is brought up to date first, e.g. with the player who just joined.
+     */
+    public void sendJoinSnapshot(String roomId, WebSocketSession session) {
+        roomExecutor.submit(roomId, () -> {
+            GameStateSnapshotCache.Snapshot state = currentState(roomId);
+            if (state == null) {
+                webSocketHandler.sendToSession(session, GameEvent.error("Game not found"));
+                return null;
+            }
+            // The state's JSON comes from the cache; only the envelope is serialized here
+            GameEvent snapshot = GameEvent.gameSnapshot(state.dto()).withSeq(channel(roomId).seq);
+            webSocketHandler.sendToSession(session, snapshot, state.json());
+            return null;
+        }).exceptionally(e -> {
+            webSocketHandler.sendToSession(session, GameEvent.error(e.getMessage()));
+            return null;
+        });
+    }
+
+    /**
+     * The room's full state tagged with its current sequence number, after any pending events
+     * have been sent; null when the room has no game. Room events with a higher seq follow it.
+     */
+    public GameEvent snapshot(String roomId) {
+        return roomExecutor.execute(roomId, () -> {
+            GameStateSnapshotCache.Snapshot state = currentState(roomId);
+            return state != null ? GameEvent.gameSnapshot(state.dto()).withSeq(channel(roomId).seq) : null;
+        });
+    }
+
+    /**
+     * Send a reconnecting session the room events after lastSeq, or a full snapshot
+     * when some of them are no longer buffered
+     */
+    public void resume(String roomId, WebSocketSession session, long lastSeq) {
+        roomExecutor.submit(roomId, () -> {
+            RoomChannel channel = channel(roomId);
+            flush(roomId, channel);
+            GameEvent oldest = channel.recent.peekFirst();
+            boolean missedTooMuch = lastSeq > channel.seq
+                    || (lastSeq < channel.seq && (oldest == null || oldest.getSeq() > lastSeq + 1));
+            if (missedTooMuch) {
+                // Already on the room executor, so this runs inline
+                sendJoinSnapshot(roomId, session);
+                return null;
+            }
+
+            List<GameEvent> missed = new ArrayList<>();
+            for (GameEvent event : channel.recent) {
+                if (event.getSeq() > lastSeq) {
+                    missed.add(event);
+                }
+            }
+            if (!missed.isEmpty()) {
+                webSocketHandler.sendToSession(session, missed.size() == 1 ? missed.get(0) : GameEvent.batch(missed));
+            }
+            return null;
+        }).exceptionally(e -> {
+            webSocketHandler.sendToSession(session, GameEvent.error(e.getMessage()));
+            return null;
+        });
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            channels.remove(event.roomId());
+        }
+    }
+
+    // On the room's executor: send pending events, then return the state they lead up to
+    private GameStateSnapshotCache.Snapshot currentState(String roomId) {
+        GameState gameState = roomService.getGameState(roomId);
+        if (gameState == null) {
+            return null;
+        }
+
+        publishState(roomId, gameState);
+        flush(roomId, channel(roomId));
+        return snapshotCache.get(roomId);
+    }
+
+    private RoomChannel channel(String roomId) {
+        return channels.computeIfAbsent(roomId, k -> new RoomChannel());
+    }
+
+    private void flush(String roomId, RoomChannel channel) {
+        if (channel.pending.isEmpty()) {
+            return;
+        }
+        List<GameEvent> events = new ArrayList<>(channel.pending);
+        channel.pending.clear();
+        webSocketHandler.sendToRoom(roomId, events.size() == 1 ? events.get(0) : GameEvent.batch(events));
+    }
+
+    // Only touched on the room's command executor
+    private static final class RoomChannel {
+        private long seq;
+        private GameStateDTO lastState;
+        private int deltasSinceKeyframe;
+        private final List<GameEvent> pending = new ArrayList<>();
+        private final Deque<GameEvent> recent = new ArrayDeque<>();
+    }
+}
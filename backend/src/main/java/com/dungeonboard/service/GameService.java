@@ -1,9 +1,11 @@
 package com.dungeonboard.service;
 
 import com.dungeonboard.dto.GameEvent;
-import com.dungeonboard.handler.GameWebSocketHandler;
+import com.dungeonboard.model.GameLog;
 import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
 import com.dungeonboard.model.Player;
+import com.dungeonboard.model.Room;
 import com.dungeonboard.model.board.Tile;
 import com.dungeonboard.model.board.TileType;
 import com.dungeonboard.model.event.EventCardType;
@@ -11,10 +13,15 @@ import com.dungeonboard.service.RoomService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Service
 public class GameService {
@@ -34,14 +41,37 @@ public class GameService {
     private CharacterService characterService;
 
     @Autowired
-    private BotAIService botAIService;
+    private GameBroadcastService broadcastService;
 
     @Autowired
-    private GameWebSocketHandler webSocketHandler;
+    private RoomCommandExecutor roomExecutor;
+
+    @Autowired
+    private BotTurnScheduler botTurnScheduler;
+
+    @Autowired
+    private TurnDeadlineScheduler turnDeadlineScheduler;
+
+    @Value("${game.commands.dedup-capacity:64}")
+    private int dedupCapacity;
 
     private final Random random = new Random();
+    private final Map<String, CommandResultCache> commandResults = new ConcurrentHashMap<>();
 
     public GameEvent rollDice(String roomId, String playerId) {
+        return rollDice(roomId, playerId, null, null);
+    }
+
+    /**
+     * Roll for the current player. A non-null expectedVersion that no longer matches
+     * the game state rejects the command without queueing it, and a repeated commandId
+     * returns the original result instead of rolling again.
+     */
+    public GameEvent rollDice(String roomId, String playerId, Long expectedVersion, String commandId) {
+        return executeCommand(roomId, playerId, expectedVersion, commandId, () -> applyRollDice(roomId, playerId));
+    }
+
+    private GameEvent applyRollDice(String roomId, String playerId) {
         GameState gameState = roomService.getGameState(roomId);
         if (gameState == null) {
             return GameEvent.error("Game not found");
@@ -57,6 +87,8 @@ public class GameService {
             return GameEvent.error("Not your turn");
         }
 
+        gameState.bumpVersion();
+
         // Roll the dice
         int roll = diceService.rollDice();
         gameState.setLastDiceRoll(roll);
@@ -67,53 +99,122 @@ public class GameService {
             roll += currentPlayer.getCharacter().getRace().getRollBonus();
         }
 
-        gameState.addLog(currentPlayer.getUsername() + " rolled a " + roll + "!");
+        gameState.log(LogCode.ROLLED, currentPlayer, roll);
 
         // Apply Elf movement bonus on 5-6
         if (currentPlayer.getCharacter() != null &&
             currentPlayer.getCharacter().getRace() == com.dungeonboard.model.character.Race.ELF &&
             roll >= 5) {
             roll += currentPlayer.getCharacter().getRace().getMovementBonus();
-            gameState.addLog(currentPlayer.getUsername() + " (Elf) moves +1 tile!");
+            gameState.log(LogCode.ELF_BONUS, currentPlayer);
         }
 
         // Move player
         movePlayer(gameState, currentPlayer, roll);
 
         // Broadcast game state
-        webSocketHandler.sendToRoom(roomId, GameEvent.gameStateUpdate(gameState));
+        broadcastState(roomId, gameState);
 
         // Handle tile event
         GameEvent tileEvent = handleTileEvent(roomId, gameState, currentPlayer);
         if (tileEvent != null) {
-            webSocketHandler.sendToRoom(roomId, tileEvent);
+            broadcast(roomId, gameState, tileEvent);
         }
 
         // Check if game is finished
         if (gameState.isGameFinished()) {
             roomService.endGame(roomId);
             gameState.calculateFinalScores();
-            webSocketHandler.sendToRoom(roomId, GameEvent.gameOver(gameState.getWinnerId()));
+            broadcast(roomId, gameState, GameEvent.gameOver(gameState.getWinnerId()));
         } else {
-            // Move to next player
-            gameState.nextPlayer();
-            webSocketHandler.sendToRoom(roomId, GameEvent.gameStateUpdate(gameState));
-
-            // If next player is a bot, trigger bot action
-            Player nextPlayer = gameState.getCurrentPlayer();
-            if (nextPlayer != null && nextPlayer.isBot()) {
-                gameState.setWaitingForRoll(true);
-                // Schedule bot action after a delay
-                scheduleBotAction(roomId, nextPlayer);
-            } else {
-                gameState.setWaitingForRoll(true);
+            advanceTurn(roomId, gameState);
+        }
+
+        return GameEvent.diceRolled(roll).withVersion(gameState.getVersion());
+    }
+
+    /**
+     * Start the game and its first turn
+     */
+    public GameState startGame(String roomId) {
+        return roomExecutor.execute(roomId, () -> {
+            GameState gameState = roomService.startGame(roomId);
+            gameState.setWaitingForRoll(true);
+            startTurn(roomId, gameState);
+            return gameState;
+        });
+    }
+
+    /**
+     * Re-arm the current turn's bot action or deadline, for a game recovered after a restart
+     */
+    public void resumeGame(String roomId) {
+        roomExecutor.run(roomId, () -> {
+            GameState gameState = roomService.getGameState(roomId);
+            if (gameState != null && gameState.getStatus() == GameState.GameStatus.IN_PROGRESS) {
+                startTurn(roomId, gameState);
+            }
+        });
+    }
+
+    /**
+     * Skip the current player's turn, e.g. when their turn deadline expires
+     */
+    public GameEvent skipTurn(String roomId, String playerId) {
+        return roomExecutor.execute(roomId, () -> {
+            GameState gameState = roomService.getGameState(roomId);
+            if (gameState == null) {
+                return GameEvent.error("Game not found");
+            }
+
+            Player currentPlayer = gameState.getCurrentPlayer();
+            if (currentPlayer == null || !currentPlayer.getId().toString().equals(playerId)) {
+                return GameEvent.error("Not your turn");
             }
+
+            gameState.bumpVersion();
+            gameState.log(LogCode.TURN_TIMED_OUT, currentPlayer);
+            GameEvent skipped = GameEvent.turnSkipped(currentPlayer.getUsername());
+            broadcast(roomId, gameState, skipped);
+            advanceTurn(roomId, gameState);
+            return skipped;
+        });
+    }
+
+    private void advanceTurn(String roomId, GameState gameState) {
+        // Move to next player
+        gameState.nextPlayer();
+        gameState.setWaitingForRoll(true);
+        startTurn(roomId, gameState);
+        broadcastState(roomId, gameState);
+    }
+
+    private void startTurn(String roomId, GameState gameState) {
+        Player player = gameState.getCurrentPlayer();
+        if (player == null) {
+            return;
         }
 
-        return GameEvent.diceRolled(roll);
+        if (player.isBot()) {
+            // Schedule bot action after a delay
+            turnDeadlineScheduler.disarm(roomId, gameState);
+            botTurnScheduler.schedule(roomId, player.getId().toString());
+        } else {
+            // Humans get a deadline so an AFK player cannot stall the room
+            Room room = roomService.getRoom(roomId);
+            turnDeadlineScheduler.arm(roomId, gameState, room != null ? room.getTurnTimeoutSeconds() : 0);
+        }
     }
 
     public GameEvent reroll(String roomId, String playerId) {
+        return reroll(roomId, playerId, null, null);
+    }
+
+    public GameEvent reroll(String roomId, String playerId, Long expectedVersion, String commandId) {
+        return executeCommand(roomId, playerId, expectedVersion, commandId, () -> applyReroll(roomId, playerId));
+    }
+
+    private GameEvent applyReroll(String roomId, String playerId) {
         GameState gameState = roomService.getGameState(roomId);
         if (gameState == null) {
             return GameEvent.error("Game not found");
@@ -128,32 +229,33 @@ public class GameService {
             return GameEvent.error("Cannot reroll");
         }
 
+        gameState.bumpVersion();
         currentPlayer.getCharacter().useReroll();
 
         // Roll again
         int newRoll = diceService.rollDice();
         gameState.setLastDiceRoll(newRoll);
-        gameState.addLog(currentPlayer.getUsername() + " rerolled and got " + newRoll + "!");
+        gameState.log(LogCode.REROLLED, currentPlayer, newRoll);
 
         // Move with new roll
         movePlayer(gameState, currentPlayer, newRoll);
 
-        webSocketHandler.sendToRoom(roomId, GameEvent.gameStateUpdate(gameState));
+        broadcastState(roomId, gameState);
 
         // Handle tile event
         GameEvent tileEvent = handleTileEvent(roomId, gameState, currentPlayer);
         if (tileEvent != null) {
-            webSocketHandler.sendToRoom(roomId, tileEvent);
+            broadcast(roomId, gameState, tileEvent);
         }
 
-        return GameEvent.diceRolled(newRoll);
+        return GameEvent.diceRolled(newRoll).withVersion(gameState.getVersion());
     }
 
     private void movePlayer(GameState gameState, Player player, int tiles) {
         int boardSize = gameState.getBoard().getSize();
         int newPosition = (player.getPosition() + tiles) % boardSize;
         player.setPosition(newPosition);
-        gameState.addLog(player.getUsername() + " moved to position " + newPosition);
+        gameState.log(LogCode.MOVED, player, newPosition);
     }
 
     private GameEvent handleTileEvent(String roomId, GameState gameState, Player player) {
@@ -182,12 +284,12 @@ public class GameService {
             player.incrementMonstersDefeated();
             int goldReward = 5 * monsterLevel + diceService.rollDice();
             player.addGold(goldReward);
-            gameState.addLog(player.getUsername() + " defeated a level " + monsterLevel + " monster and found " + goldReward + " gold!");
+            gameState.log(LogCode.MONSTER_DEFEATED, player, monsterLevel, goldReward);
             return GameEvent.combatResult("Victory! Found " + goldReward + " gold", true);
         } else {
             int damage = monsterLevel * 3;
             player.getCharacter().takeDamage(damage);
-            gameState.addLog(player.getUsername() + " was defeated by a level " + monsterLevel + " monster and took " + damage + " damage!");
+            gameState.log(LogCode.MONSTER_WON, player, monsterLevel, damage);
             return GameEvent.combatResult("Defeat! Took " + damage + " damage", false);
         }
     }
@@ -202,7 +304,7 @@ public class GameService {
         }
 
         player.addGold(goldAmount);
-        gameState.addLog(player.getUsername() + " found a treasure with " + goldAmount + " gold!");
+        gameState.log(LogCode.TREASURE, player, goldAmount);
         return GameEvent.treasureFound(goldAmount);
     }
 
@@ -211,50 +313,50 @@ public class GameService {
         if (player.getCharacter() != null &&
             player.getCharacter().getRace() == com.dungeonboard.model.character.Race.GOBLIN &&
             player.getCharacter().getRace().isTrapImmune()) {
-            gameState.addLog(player.getUsername() + " (Goblin) is immune to traps!");
+            gameState.log(LogCode.TRAP_IMMUNE, player);
             return GameEvent.eventCard("Trap immunity activated!");
         }
 
         int damage = tile.getTrapDamage();
         player.getCharacter().takeDamage(damage);
-        gameState.addLog(player.getUsername() + " triggered a trap and took " + damage + " damage!");
+        gameState.log(LogCode.TRAP, player, damage);
         return GameEvent.trapTriggered(damage);
     }
 
     private GameEvent handlePortalTile(GameState gameState, Player player) {
         int newPosition = random.nextInt(gameState.getBoard().getSize());
         player.setPosition(newPosition);
-        gameState.addLog(player.getUsername() + " was teleported to position " + newPosition + "!");
+        gameState.log(LogCode.TELEPORTED, player, newPosition);
         return GameEvent.eventCard("Teleported to position " + newPosition);
     }
 
     private GameEvent handleEventTile(GameState gameState, Player player) {
         EventCardType eventCard = drawRandomEventCard();
-        gameState.addLog("Event card drawn: " + eventCard.getName());
+        gameState.log(LogCode.EVENT_CARD, player, eventCard.ordinal());
 
         return switch (eventCard) {
             // Bless cards
             case BLESS_GOLD -> {
-                gameState.addLog(player.getUsername() + " received Gold Rush blessing!");
+                gameState.log(LogCode.BLESSING, player, eventCard.ordinal());
                 yield GameEvent.eventCard("Gold Rush: Double gold from next treasure!");
             }
             case BLESS_MOVE -> {
-                gameState.addLog(player.getUsername() + " received Swift Feet blessing!");
+                gameState.log(LogCode.BLESSING, player, eventCard.ordinal());
                 yield GameEvent.eventCard("Swift Feet: +3 movement next turn!");
             }
             case BLESS_SHIELD -> {
-                gameState.addLog(player.getUsername() + " received Divine Shield blessing!");
+                gameState.log(LogCode.BLESSING, player, eventCard.ordinal());
                 yield GameEvent.eventCard("Divine Shield: Immune to next attack!");
             }
             case BLESS_HEAL -> {
                 if (player.getCharacter() != null) {
                     player.getCharacter().heal(20);
-                    gameState.addLog(player.getUsername() + " healed for 20 HP!");
+                    gameState.log(LogCode.HEALED, player, 20);
                 }
                 yield GameEvent.eventCard("Healing Light: Restored 20 HP!");
             }
             case BLESS_REROLL -> {
-                gameState.addLog(player.getUsername() + " received Lucky Star blessing!");
+                gameState.log(LogCode.BLESSING, player, eventCard.ordinal());
                 yield GameEvent.eventCard("Lucky Star: Reroll next dice roll!");
             }
             case BLESS_STEAL -> {
@@ -263,7 +365,7 @@ public class GameService {
                     int stolen = Math.min(10, target.getGold());
                     target.removeGold(stolen);
                     player.addGold(stolen);
-                    gameState.addLog(player.getUsername() + " stole " + stolen + " gold from " + target.getUsername() + "!");
+                    gameState.log(LogCode.STOLE, player, stolen, gameState.getGameLog().playerIndex(target));
                 }
                 yield GameEvent.eventCard("Pickpocket: Stole 10 gold!");
             }
@@ -271,13 +373,13 @@ public class GameService {
             // Curse cards
             case CURSE_LOSE_TURN -> {
                 player.skipTurn();
-                gameState.addLog(player.getUsername() + " is stunned and will skip next turn!");
+                gameState.log(LogCode.STUNNED, player);
                 yield GameEvent.eventCard("Stunned: Skip next turn!");
             }
             case CURSE_DROP_GOLD -> {
                 int dropped = Math.min(15, player.getGold());
                 player.removeGold(dropped);
-                gameState.addLog(player.getUsername() + " dropped " + dropped + " gold!");
+                gameState.log(LogCode.DROPPED_GOLD, player, dropped);
                 yield GameEvent.eventCard("Greedy Ghost: Dropped " + dropped + " gold!");
             }
             case CURSE_SWAP -> {
@@ -286,28 +388,28 @@ public class GameService {
                     int tempPos = player.getPosition();
                     player.setPosition(target.getPosition());
                     target.setPosition(tempPos);
-                    gameState.addLog(player.getUsername() + " swapped positions with " + target.getUsername() + "!");
+                    gameState.log(LogCode.SWAPPED, player, gameState.getGameLog().playerIndex(target));
                 }
                 yield GameEvent.eventCard("Confusion: Swapped positions!");
             }
             case CURSE_DAMAGE -> {
                 if (player.getCharacter() != null) {
                     player.getCharacter().takeDamage(10);
-                    gameState.addLog(player.getUsername() + " took 10 poison damage!");
+                    gameState.log(LogCode.POISONED, player, 10);
                 }
                 yield GameEvent.eventCard("Poison: Took 10 damage!");
             }
             case CURSE_TELEPORT -> {
                 int newPosition = random.nextInt(gameState.getBoard().getSize());
                 player.setPosition(newPosition);
-                gameState.addLog(player.getUsername() + " was warped to position " + newPosition + "!");
+                gameState.log(LogCode.WARPED, player, newPosition);
                 yield GameEvent.eventCard("Warp: Teleported randomly!");
             }
             case CURSE_MOVE_BACK -> {
                 int boardSize = gameState.getBoard().getSize();
                 int newPosition = ((player.getPosition() - 3) % boardSize + boardSize) % boardSize;
                 player.setPosition(newPosition);
-                gameState.addLog(player.getUsername() + " stumbled back to position " + newPosition + "!");
+                gameState.log(LogCode.STUMBLED, player, newPosition);
                 yield GameEvent.eventCard("Stumble: Moved back 3 tiles!");
             }
         };
@@ -330,35 +432,131 @@ public class GameService {
         return otherPlayers.get(random.nextInt(otherPlayers.size()));
     }
 
-    private void scheduleBotAction(String roomId, Player botPlayer) {
-        // Run bot action after a delay (simulated)
-        new Thread(() -> {
-            try {
-                Thread.sleep(1500); // 1.5 second delay for realism
-                botAIService.executeBotTurn(roomId, botPlayer.getId().toString());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+    public void selectCharacter(String roomId, String playerId, int classId, int raceId) {
+        roomExecutor.run(roomId, () -> applySelectCharacter(roomId, playerId, classId, raceId));
     }
 
-    public void selectCharacter(String roomId, String playerId, int classId, int raceId) {
+    private void applySelectCharacter(String roomId, String playerId, int classId, int raceId) {
         GameState gameState = roomService.getGameState(roomId);
         if (gameState == null) {
             throw new RuntimeException("Game not found");
         }
 
         characterService.selectCharacter(gameState, playerId, classId, raceId);
-        webSocketHandler.sendToRoom(roomId, GameEvent.gameStateUpdate(gameState));
+        gameState.bumpVersion();
+        broadcastState(roomId, gameState);
+    }
+
+    public GameEvent useAbility(String roomId, String playerId) {
+        return useAbility(roomId, playerId, null, null);
+    }
+
+    public GameEvent useAbility(String roomId, String playerId, Long expectedVersion, String commandId) {
+        return executeCommand(roomId, playerId, expectedVersion, commandId, () -> applyUseAbility(roomId, playerId));
     }
 
-    public void useAbility(String roomId, String playerId) {
+    private GameEvent applyUseAbility(String roomId, String playerId) {
         GameState gameState = roomService.getGameState(roomId);
         if (gameState == null) {
             throw new RuntimeException("Game not found");
         }
 
         characterService.useCharacterAbility(gameState, playerId);
-        webSocketHandler.sendToRoom(roomId, GameEvent.gameStateUpdate(gameState));
+        gameState.bumpVersion();
+        broadcastState(roomId, gameState);
+
+        Player player = gameState.getPlayers().stream()
+                .filter(p -> p.getId().toString().equals(playerId))
+                .findFirst()
+                .orElseThrow();
+        return GameEvent.abilityUsed(player.getUsername()).withVersion(gameState.getVersion());
+    }
+
+    /**
+     * Game log entries after afterSeq that are still retained, rendered to text
+     */
+    public List<GameLog.Entry> getLog(String roomId, long afterSeq) {
+        return roomExecutor.execute(roomId, () -> {
+            GameState gameState = roomService.getGameState(roomId);
+            if (gameState == null) {
+                throw new RuntimeException("Game not found");
+            }
+            return gameState.getGameLog().since(afterSeq);
+        });
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            commandResults.remove(event.roomId());
+        }
+    }
+
+    /**
+     * Run a command on the room executor unless it is a duplicate or expectedVersion is already stale.
+     * Duplicates and stale versions are checked lock-free before queueing, then again once the
+     * command reaches the head of the queue. Duplicates must win over staleness: a retried
+     * command always carries the version from before its first execution.
+     */
+    private GameEvent executeCommand(String roomId, String playerId, Long expectedVersion, String commandId,
+                                     Supplier<GameEvent> command) {
+        String dedupKey = commandId != null ? playerId + ":" + commandId : null;
+        GameEvent previous = cachedResult(roomId, dedupKey);
+        if (previous != null) {
+            return previous;
+        }
+
+        GameEvent stale = checkVersion(roomId, expectedVersion);
+        if (stale != null) {
+            return stale;
+        }
+
+        return roomExecutor.execute(roomId, () -> {
+            GameEvent duplicate = cachedResult(roomId, dedupKey);
+            if (duplicate != null) {
+                return duplicate;
+            }
+
+            GameEvent staleInQueue = checkVersion(roomId, expectedVersion);
+            if (staleInQueue != null) {
+                return staleInQueue;
+            }
+
+            GameEvent result = command.get();
+            if (dedupKey != null) {
+                commandResults.computeIfAbsent(roomId, k -> new CommandResultCache(dedupCapacity))
+                        .put(dedupKey, result);
+            }
+            return result;
+        });
+    }
+
+    private GameEvent cachedResult(String roomId, String dedupKey) {
+        if (dedupKey == null) {
+            return null;
+        }
+
+        CommandResultCache cache = commandResults.get(roomId);
+        return cache != null ? cache.get(dedupKey) : null;
+    }
+
+    private GameEvent checkVersion(String roomId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return null;
+        }
+
+        GameState gameState = roomService.getGameState(roomId);
+        if (gameState != null && gameState.getVersion() != expectedVersion) {
+            return GameEvent.staleState(gameState.getVersion());
+        }
+        return null;
+    }
+
+    private void broadcast(String roomId, GameState gameState, GameEvent event) {
+        broadcastService.publish(roomId, event.withVersion(gameState.getVersion()));
+    }
+
+    private void broadcastState(String roomId, GameState gameState) {
+        broadcastService.publishState(roomId, gameState);
     }
 }
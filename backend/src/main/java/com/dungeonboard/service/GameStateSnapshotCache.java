@@ -0,0 +1,109 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.dto.GameStateDTO;
+import com.dungeonboard.model.GameState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest full game state of each room, built and serialized once per state version.
+ * Hits only compare the room's version; a miss is built on the room's executor so the
+ * cached bytes never capture a command halfway through.
+ */
+@Service
+public class GameStateSnapshotCache {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The room's current snapshot, or null when the room has no game
+     */
+    public Snapshot get(String roomId) {
+        GameState gameState = roomService.getGameState(roomId);
+        if (gameState == null) {
+            return null;
+        }
+
+        Snapshot cached = snapshots.get(roomId);
+        if (cached != null && cached.version() == gameState.getVersion()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        return roomExecutor.execute(roomId, () -> build(roomId, gameState));
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            snapshots.remove(event.roomId());
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(snapshots.size(), hits.get(), misses.get());
+    }
+
+    private Snapshot build(String roomId, GameState gameState) {
+        // Another request may have built it while this one was queued
+        Snapshot cached = snapshots.get(roomId);
+        if (cached != null && cached.version() == gameState.getVersion()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        GameStateDTO dto = GameStateDTO.fromGameState(gameState);
+        try {
+            Snapshot snapshot = new Snapshot(gameState.getVersion(), dto, objectMapper.writeValueAsBytes(dto));
+            snapshots.put(roomId, snapshot);
+            return snapshot;
+        } catch (Exception e) {
+            throw new RuntimeException("Error serializing game state", e);
+        }
+    }
+
+    /**
+     * One version of a room's state. The DTO is shared: treat it as read-only.
+     */
+    public record Snapshot(long version, GameStateDTO dto, byte[] json) {
+
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+
+        /**
+         * Whether an If-None-Match header names this version
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            String etag = etag();
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public record Stats(int rooms, long hits, long misses) {}
+}
@@ -0,0 +1,137 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.dto.LobbyRoom;
+import com.dungeonboard.dto.LobbyUpdate;
+import com.dungeonboard.handler.GameWebSocketHandler;
+import com.dungeonboard.model.Room;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the list of open rooms to lobby subscribers.
+ * Room lifecycle events only mark rooms dirty; every game.lobby.flush-interval-ms the dirty rooms
+ * are turned into one LOBBY_UPDATE per subscriber, however many rooms changed in between.
+ * New subscribers get a LOBBY_SNAPSHOT of the newest open rooms that is consistent with the updates that follow.
+ */
+@Service
+public class LobbyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LobbyService.class);
+
+    @Autowired
+    private RoomService roomService;
+
+    @Lazy
+    @Autowired
+    private GameWebSocketHandler webSocketHandler;
+
+    private final ScheduledExecutorService timer;
+    private final long flushIntervalMs;
+    private final int pageSize;
+
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+    // Guarded by this: what subscribers have been told, and who they are
+    private final Map<String, LobbyRoom> listedRooms = new HashMap<>();
+    private final Map<String, WebSocketSession> subscribers = new HashMap<>();
+    private ScheduledFuture<?> flushTask;
+
+    public LobbyService(@Qualifier("gameTimer") ScheduledExecutorService timer,
+                        @Value("${game.lobby.flush-interval-ms:250}") long flushIntervalMs,
+                        @Value("${game.lobby.page-size:50}") int pageSize) {
+        this.timer = timer;
+        this.flushIntervalMs = flushIntervalMs;
+        this.pageSize = pageSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        flushTask = timer.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushTask.cancel(false);
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        // Runs on the room's executor: just note the room, the flush does the work
+        dirtyRooms.add(event.roomId());
+    }
+
+    public synchronized void subscribe(WebSocketSession session) {
+        subscribers.put(session.getId(), session);
+        List<LobbyRoom> page = listedRooms.values().stream()
+                .sorted(Comparator.comparingLong(LobbyRoom::getCreatedAt).reversed())
+                .limit(pageSize)
+                .toList();
+        webSocketHandler.sendToSession(session, GameEvent.lobbySnapshot(page));
+    }
+
+    public synchronized void unsubscribe(WebSocketSession session) {
+        subscribers.remove(session.getId());
+    }
+
+    private synchronized void flush() {
+        if (dirtyRooms.isEmpty()) {
+            return;
+        }
+
+        try {
+            LobbyUpdate update = new LobbyUpdate();
+            Iterator<String> dirty = dirtyRooms.iterator();
+            while (dirty.hasNext()) {
+                String roomId = dirty.next();
+                dirty.remove();
+
+                Room room = roomService.getRoom(roomId);
+                boolean open = room != null && isOpen(room);
+                if (open) {
+                    LobbyRoom summary = LobbyRoom.fromRoom(room);
+                    LobbyRoom previous = listedRooms.put(roomId, summary);
+                    if (previous == null) {
+                        update.getAdded().add(summary);
+                    } else if (!previous.equals(summary)) {
+                        update.getUpdated().add(summary);
+                    }
+                } else if (listedRooms.remove(roomId) != null) {
+                    update.getRemoved().add(roomId);
+                }
+            }
+
+            if (!update.isEmpty() && !subscribers.isEmpty()) {
+                webSocketHandler.sendToSessions(new ArrayList<>(subscribers.values()), GameEvent.lobbyUpdate(update));
+            }
+        } catch (Exception e) {
+            // Keep the periodic flush alive
+            logger.error("Error flushing lobby updates", e);
+        }
+    }
+
+    // Same rule as RoomService.getAvailableRooms
+    private boolean isOpen(Room room) {
+        return !room.isPrivate() && room.getStatus() == Room.RoomStatus.WAITING && !room.isFull();
+    }
+}
@@ -0,0 +1,48 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.dto.MatchDetails;
+import com.dungeonboard.dto.MatchHistoryEntry;
+import com.dungeonboard.model.Match;
+import com.dungeonboard.repository.MatchRepository;
+import com.dungeonboard.repository.MatchResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the match history written by MatchHistoryWriter
+ */
+@Service
+public class MatchHistoryService {
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Value("${game.history.max-page-size:50}")
+    private int maxPageSize;
+
+    /**
+     * The user's finished matches, newest first
+     */
+    @Transactional(readOnly = true)
+    public Page<MatchHistoryEntry> getHistory(Long userId, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new RuntimeException("Invalid page");
+        }
+        return matchResultRepository.findHistory(userId, PageRequest.of(page, Math.min(size, maxPageSize)))
+                .map(MatchHistoryEntry::fromResult);
+    }
+
+    @Transactional(readOnly = true)
+    public MatchDetails getMatch(String matchId) {
+        Match match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+        return new MatchDetails(match, matchResultRepository.findByMatchIdOrderByPlacement(matchId));
+    }
+}
@@ -0,0 +1,187 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.Match;
+import com.dungeonboard.model.MatchResult;
+import com.dungeonboard.model.Player;
+import com.dungeonboard.model.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores finished matches without making game completion wait on the database.
+ * The FINISHED lifecycle event copies the final scores on the room's worker; the match and its
+ * per-player results are then inserted as JDBC batches, one transaction per batch, every
+ * game.history.flush-interval-ms or sooner once game.history.batch-size matches are pending.
+ */
+@Service
+public class MatchHistoryWriter extends BatchingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchHistoryWriter.class);
+
+    private static final String INSERT_MATCH = "INSERT INTO matches "
+            + "(id, room_id, room_name, player_count, rounds_played, winner_name, started_at, ended_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RESULT = "INSERT INTO match_results "
+            + "(match_id, user_id, username, is_bot, player_class, race, gold, monsters_defeated, "
+            + "treasures_collected, score, placement, is_winner, ended_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Queue<FinishedMatch> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final int maxPending;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public MatchHistoryWriter(@Value("${game.history.flush-interval-ms:1000}") long flushIntervalMs,
+                              @Value("${game.history.batch-size:100}") int batchSize,
+                              @Value("${game.history.max-pending:10000}") int maxPending) {
+        super("match-history-writer", flushIntervalMs, batchSize);
+        this.maxPending = maxPending;
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() != RoomLifecycleEvent.Type.FINISHED) {
+            return;
+        }
+
+        // Runs on the room's worker, right after the final scores: copy them, the flush does the rest
+        Room room = roomService.getRoom(event.roomId());
+        GameState gameState = roomService.getGameState(event.roomId());
+        if (room == null || gameState == null) {
+            return;
+        }
+        if (pendingCount.get() >= maxPending) {
+            dropped.incrementAndGet();
+            logger.warn("Match history backlog full, dropping match of room {}", event.roomId());
+            return;
+        }
+
+        pending.add(capture(room, gameState));
+        recorded(pendingCount.incrementAndGet());
+    }
+
+    public Stats getStats() {
+        return new Stats(pendingCount.get(), getBatchSize(), getRecorded(), getWritten(), getBatches(),
+                dropped.get(), getFailed());
+    }
+
+    private FinishedMatch capture(Room room, GameState gameState) {
+        LocalDateTime endedAt = gameState.getEndTime() != null ? gameState.getEndTime() : LocalDateTime.now();
+        List<Player> players = gameState.getPlayers();
+
+        Match match = new Match(UUID.randomUUID().toString(), room.getRoomId(), room.getName(), players.size(),
+                gameState.getCurrentRound(), null, gameState.getStartTime(), endedAt);
+        List<MatchResult> results = new ArrayList<>(players.size());
+        for (Player player : players) {
+            boolean winner = player.getId().toString().equals(gameState.getWinnerId());
+            if (winner) {
+                match.setWinnerName(player.getUsername());
+            }
+            // Ties share a placement
+            int placement = 1 + (int) players.stream().filter(p -> p.getScore() > player.getScore()).count();
+            results.add(new MatchResult(null, match, player.isBot() ? null : player.getId(), player.getUsername(),
+                    player.isBot(),
+                    player.getCharacter() != null ? player.getCharacter().getPlayerClass().name() : null,
+                    player.getCharacter() != null ? player.getCharacter().getRace().name() : null,
+                    player.getGold(), player.getMonstersDefeated(), player.getTreasuresCollected(),
+                    player.getScore(), placement, winner, endedAt));
+        }
+        return new FinishedMatch(match, results);
+    }
+
+    @Override
+    protected void writePending() {
+        while (pendingCount.get() > 0) {
+            List<FinishedMatch> batch = new ArrayList<>(getBatchSize());
+            FinishedMatch finished;
+            while (batch.size() < getBatchSize() && (finished = pending.poll()) != null) {
+                batch.add(finished);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+            write(batch);
+        }
+    }
+
+    private void write(List<FinishedMatch> batch) {
+        List<Match> matches = new ArrayList<>(batch.size());
+        List<MatchResult> results = new ArrayList<>();
+        for (FinishedMatch finished : batch) {
+            matches.add(finished.match());
+            results.addAll(finished.results());
+        }
+
+        try {
+            // One transaction, so a match is never visible without its results
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_MATCH, matches, matches.size(), (ps, match) -> {
+                    ps.setString(1, match.getId());
+                    ps.setString(2, match.getRoomId());
+                    ps.setString(3, match.getRoomName());
+                    ps.setInt(4, match.getPlayerCount());
+                    ps.setInt(5, match.getRoundsPlayed());
+                    ps.setString(6, match.getWinnerName());
+                    ps.setObject(7, timestamp(match.getStartedAt()), Types.TIMESTAMP);
+                    ps.setObject(8, timestamp(match.getEndedAt()), Types.TIMESTAMP);
+                });
+                jdbcTemplate.batchUpdate(INSERT_RESULT, results, results.size(), (ps, result) -> {
+                    ps.setString(1, result.getMatch().getId());
+                    ps.setObject(2, result.getUserId(), Types.BIGINT);
+                    ps.setString(3, result.getUsername());
+                    ps.setBoolean(4, result.isBot());
+                    ps.setString(5, result.getPlayerClass());
+                    ps.setString(6, result.getRace());
+                    ps.setInt(7, result.getGold());
+                    ps.setInt(8, result.getMonstersDefeated());
+                    ps.setInt(9, result.getTreasuresCollected());
+                    ps.setInt(10, result.getScore());
+                    ps.setInt(11, result.getPlacement());
+                    ps.setBoolean(12, result.isWinner());
+                    ps.setObject(13, timestamp(result.getEndedAt()), Types.TIMESTAMP);
+                });
+            });
+            batchWritten(batch.size());
+        } catch (Exception e) {
+            batchFailed(batch.size());
+            logger.error("Error writing {} finished matches", batch.size(), e);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private record FinishedMatch(Match match, List<MatchResult> results) {}
+
+    public record Stats(int pending, int batchSize, long recorded, long written, long batches,
+                        long dropped, long failed) {}
+}
@@ -0,0 +1,116 @@
+package com.dungeonboard.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing (BCrypt logins and registrations) on a small dedicated pool, so a login burst
+ * cannot occupy the request threads that serve game traffic. Work beyond auth.hashing.queue-capacity
+ * is rejected immediately; callers answer 503 and ask the client to retry after auth.hashing.retry-after-seconds.
+ */
+@Service
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor hashers;
+    private final int queueCapacity;
+    private final int retryAfterSeconds;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${auth.hashing.retry-after-seconds:1}") int retryAfterSeconds) {
+        // Hashing is pure CPU: by default leave at least half the cores to the game
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Queue the hashing work and return its result asynchronously.
+     * When the queue is full the future fails at once with a RejectedException.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            hashers.execute(() -> {
+                long startedAt = System.nanoTime();
+                totalWaitNanos.addAndGet(startedAt - queuedAt);
+                try {
+                    future.complete(work.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    long runNanos = System.nanoTime() - startedAt;
+                    totalRunNanos.addAndGet(runNanos);
+                    maxRunNanos.accumulateAndGet(runNanos, Math::max);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedException(retryAfterSeconds));
+        }
+        return future;
+    }
+
+    public Stats getStats() {
+        long count = completed.get();
+        return new Stats(hashers.getMaximumPoolSize(), hashers.getActiveCount(), hashers.getQueue().size(),
+                queueCapacity, count, rejected.get(),
+                count > 0 ? totalWaitNanos.get() / count / 1_000_000.0 : 0,
+                count > 0 ? totalRunNanos.get() / count / 1_000_000.0 : 0,
+                maxRunNanos.get() / 1_000_000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        hashers.shutdown();
+        if (!hashers.awaitTermination(5, TimeUnit.SECONDS)) {
+            hashers.shutdownNow();
+        }
+    }
+
+    /**
+     * Hashing queue is full; the client should retry after the given delay
+     */
+    public static class RejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int retryAfterSeconds;
+
+        public RejectedException(int retryAfterSeconds) {
+            super("Authentication is busy, please retry shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    public record Stats(int threads, int active, int queued, int queueCapacity, long completed, long rejected,
+                        double avgWaitMs, double avgHashMs, double maxHashMs) {}
+}
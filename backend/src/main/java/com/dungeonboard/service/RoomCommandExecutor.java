@@ -0,0 +1,304 @@
+package com.dungeonboard.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Mailbox-style executor for room commands.
+ * Commands for one room are queued and applied one at a time in submission order,
+ * while different rooms drain in parallel on a shared worker pool.
+ * A room gets its mailbox when it is opened and loses it once removed and drained;
+ * commands for any other room id are rejected.
+ */
+@Component
+public class RoomCommandExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomCommandExecutor.class);
+
+    // Max commands a mailbox drains before yielding its worker to other rooms
+    private static final int DRAIN_BATCH = 32;
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> currentRoom = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> afterCommandHooks = ThreadLocal.withInitial(ArrayList::new);
+    private final List<Consumer<String>> commandListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService workers;
+    private volatile boolean accepting = true;
+
+    public RoomCommandExecutor(@Value("${game.executor.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "room-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Give a new or restored room its mailbox; call before the room is published
+     */
+    public void open(String roomId) {
+        // A removed room whose mailbox is still draining keeps it, so its commands stay in order
+        mailboxes.compute(roomId, (id, mailbox) -> mailbox != null && mailbox.reopen() ? mailbox : new Mailbox(id));
+    }
+
+    /**
+     * Queue a command for the room and return its result asynchronously.
+     * A command submitted from the room's own worker runs inline, so commands may call each other.
+     * The future fails at once when the room is unknown or already removed.
+     */
+    public <T> CompletableFuture<T> submit(String roomId, Supplier<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (roomId.equals(currentRoom.get())) {
+            complete(future, command);
+            return future;
+        }
+
+        Mailbox mailbox = mailboxes.get(roomId);
+        if (mailbox == null) {
+            future.completeExceptionally(new RuntimeException("Room not found"));
+        } else if (!mailbox.enqueue(() -> complete(future, command))) {
+            future.completeExceptionally(new RuntimeException(accepting ? "Room not found" : "Server is shutting down"));
+        }
+        return future;
+    }
+
+    /**
+     * Queue a command for the room and wait for its result.
+     * Runtime exceptions thrown by the command are rethrown unchanged.
+     */
+    public <T> T execute(String roomId, Supplier<T> command) {
+        try {
+            return submit(roomId, command).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Queue a command without a result for the room and wait for it to be applied.
+     */
+    public void run(String roomId, Runnable command) {
+        execute(roomId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run the hook once the room's current command, including any commands it ran inline, has finished.
+     * Called from outside the room's worker, the hook runs immediately.
+     */
+    public void afterCommand(String roomId, Runnable hook) {
+        if (roomId.equals(currentRoom.get())) {
+            afterCommandHooks.get().add(hook);
+        } else {
+            hook.run();
+        }
+    }
+
+    /**
+     * Call the listener with the room id on the room's worker after every queued command,
+     * once its after-command hooks have run
+     */
+    public void addCommandListener(Consumer<String> listener) {
+        commandListeners.add(listener);
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            // Commands already queued still drain; the mailbox leaves the map from its own drain loop
+            Mailbox mailbox = mailboxes.get(event.roomId());
+            if (mailbox != null) {
+                mailbox.close();
+            }
+        }
+    }
+
+    /**
+     * Stop taking new commands and wait for the queued ones to finish, so state captured after each command
+     * is complete before shutdown. Commands run inline by a draining command still run.
+     * Returns false if some room was still busy when the timeout passed.
+     */
+    public boolean quiesce(long timeout, TimeUnit unit) throws InterruptedException {
+        accepting = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!mailboxes.values().stream().allMatch(Mailbox::isIdle)) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> command) {
+        try {
+            future.complete(command.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private void runAfterCommandHooks() {
+        List<Runnable> hooks = afterCommandHooks.get();
+        // Hooks may register further hooks
+        while (!hooks.isEmpty()) {
+            List<Runnable> pending = new ArrayList<>(hooks);
+            hooks.clear();
+            for (Runnable hook : pending) {
+                try {
+                    hook.run();
+                } catch (Throwable t) {
+                    logger.error("Error running after-command hook", t);
+                }
+            }
+        }
+    }
+
+    private void notifyCommandListeners(String roomId) {
+        for (Consumer<String> listener : commandListeners) {
+            try {
+                listener.accept(roomId);
+            } catch (Throwable t) {
+                logger.error("Error notifying command listener for room {}", roomId, t);
+            }
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+        private final String roomId;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        // Both guarded by the mailbox lock: nothing is queued once closed, and a retired mailbox never runs again
+        private boolean closed;
+        private boolean retired;
+
+        private Mailbox(String roomId) {
+            this.roomId = roomId;
+        }
+
+        /**
+         * Queue the command, or return false when the room has been removed or the executor is quiescing
+         */
+        private boolean enqueue(Runnable command) {
+            synchronized (this) {
+                if (closed || !accepting) {
+                    return false;
+                }
+                queue.add(command);
+            }
+            scheduleIfIdle();
+            return true;
+        }
+
+        /**
+         * Refuse further commands; the drain loop retires the mailbox once the queue is empty
+         */
+        private void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            scheduleIfIdle();
+        }
+
+        private synchronized boolean reopen() {
+            if (retired) {
+                return false;
+            }
+            closed = false;
+            return true;
+        }
+
+        private synchronized boolean retireIfDrained() {
+            if (closed && queue.isEmpty()) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        // Checked under the lock, so a command queued before quiesce() started is seen here
+        private synchronized boolean isIdle() {
+            return queue.isEmpty() && !scheduled.get();
+        }
+
+        private void scheduleIfIdle() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            currentRoom.set(roomId);
+            try {
+                Runnable command;
+                int budget = DRAIN_BATCH;
+                while (budget-- > 0 && (command = queue.poll()) != null) {
+                    try {
+                        command.run();
+                    } catch (Throwable t) {
+                        logger.error("Error applying command for room {}", roomId, t);
+                    }
+                    runAfterCommandHooks();
+                    notifyCommandListeners(roomId);
+                }
+            } finally {
+                currentRoom.remove();
+            }
+
+            if (retireIfDrained()) {
+                // Still holding the schedule flag, so this mailbox never runs again
+                mailboxes.remove(roomId, this);
+                return;
+            }
+            scheduled.set(false);
+            // Re-check after releasing: a producer may have enqueued, or the room been closed, meanwhile
+            if (!queue.isEmpty() || isClosed()) {
+                scheduleIfIdle();
+            }
+        }
+    }
+}
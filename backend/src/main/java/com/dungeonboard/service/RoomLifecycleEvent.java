@@ -0,0 +1,14 @@
+package com.dungeonboard.service;
+
+/**
+ * Published by RoomService when a room changes lifecycle state
+ */
+public record RoomLifecycleEvent(String roomId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED, // Roster or status changed
+        FINISHED,
+        REMOVED
+    }
+}
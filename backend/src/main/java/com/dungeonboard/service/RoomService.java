@@ -1,9 +1,13 @@
 package com.dungeonboard.service;
 
+import com.dungeonboard.cluster.RoomDirectory;
 import com.dungeonboard.dto.CreateRoomRequest;
 import com.dungeonboard.model.GameState;
 import com.dungeonboard.model.Player;
 import com.dungeonboard.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -15,6 +19,18 @@ public class RoomService {
     private final Map<String, Room> rooms = new ConcurrentHashMap<>();
     private final Map<String, GameState> gameStates = new ConcurrentHashMap<>();
 
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RoomDirectory roomDirectory;
+
+    @Value("${game.turn.timeout-seconds:60}")
+    private int defaultTurnTimeoutSeconds;
+
     public RoomService() {
     }
 
@@ -23,6 +39,9 @@ public class RoomService {
 
         Room room = new Room(roomId, request.getName(), hostId, request.getMaxPlayers(), request.isPrivate());
         room.setStatus(Room.RoomStatus.WAITING);
+        room.setTurnTimeoutSeconds(request.getTurnTimeoutSeconds() != null
+                ? request.getTurnTimeoutSeconds()
+                : defaultTurnTimeoutSeconds);
 
         // Add host as first player
         Player host = new Player(Long.parseLong(hostId), hostUsername, false);
@@ -30,21 +49,27 @@ public class RoomService {
 
         // Add bots if requested
         for (int i = 0; i < request.getBotCount(); i++) {
-            Player bot = new Player(null, "Bot " + (i + 1), true);
+            Player bot = new Player(botId(i + 1), "Bot " + (i + 1), true);
             room.addPlayer(bot);
         }
 
+        roomExecutor.open(roomId);
         rooms.put(roomId, room);
 
         // Initialize game state
         GameState gameState = new GameState(roomId, 24);
         gameState.setPlayers(room.getPlayers());
         gameStates.put(roomId, gameState);
+        eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.CREATED));
 
         return room;
     }
 
     public Room joinRoom(String roomId, String playerId, String username) {
+        return roomExecutor.execute(roomId, () -> applyJoinRoom(roomId, playerId, username));
+    }
+
+    private Room applyJoinRoom(String roomId, String playerId, String username) {
         Room room = rooms.get(roomId);
         if (room == null) {
             throw new RuntimeException("Room not found");
@@ -64,11 +89,17 @@ public class RoomService {
         // Update game state
         GameState gameState = gameStates.get(roomId);
         gameState.setPlayers(room.getPlayers());
+        gameState.bumpVersion();
+        eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.UPDATED));
 
         return room;
     }
 
     public Room leaveRoom(String roomId, String playerId) {
+        return roomExecutor.execute(roomId, () -> applyLeaveRoom(roomId, playerId));
+    }
+
+    private Room applyLeaveRoom(String roomId, String playerId) {
         Room room = rooms.get(roomId);
         if (room == null) {
             throw new RuntimeException("Room not found");
@@ -76,6 +107,11 @@ public class RoomService {
 
         room.removePlayer(playerId);
 
+        GameState gameState = gameStates.get(roomId);
+        if (gameState != null) {
+            gameState.bumpVersion();
+        }
+
         // If host left and there are other players, transfer host
         if (room.getHostId().equals(playerId) && !room.getPlayers().isEmpty()) {
             room.setHostId(room.getPlayers().get(0).getId().toString());
@@ -85,11 +121,24 @@ public class RoomService {
         if (room.isEmpty()) {
             rooms.remove(roomId);
             gameStates.remove(roomId);
+            eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.REMOVED));
+        } else {
+            eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.UPDATED));
         }
 
         return room;
     }
 
+    /**
+     * Put back a room recovered from the game journal at startup
+     */
+    public void restoreRoom(Room room, GameState gameState) {
+        roomExecutor.open(room.getRoomId());
+        rooms.put(room.getRoomId(), room);
+        gameStates.put(room.getRoomId(), gameState);
+        eventPublisher.publishEvent(new RoomLifecycleEvent(room.getRoomId(), RoomLifecycleEvent.Type.CREATED));
+    }
+
     public Room getRoom(String roomId) {
         return rooms.get(roomId);
     }
@@ -111,6 +160,10 @@ public class RoomService {
     }
 
     public GameState startGame(String roomId) {
+        return roomExecutor.execute(roomId, () -> applyStartGame(roomId));
+    }
+
+    private GameState applyStartGame(String roomId) {
         Room room = rooms.get(roomId);
         if (room == null) {
             throw new RuntimeException("Room not found");
@@ -138,19 +191,23 @@ public class RoomService {
         GameState gameState = gameStates.get(roomId);
         gameState.setStatus(GameState.GameStatus.IN_PROGRESS);
         gameState.setStartTime(java.time.LocalDateTime.now());
+        gameState.bumpVersion();
+        eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.UPDATED));
 
         return gameState;
     }
 
     public void endGame(String roomId) {
         Room room = rooms.get(roomId);
-        if (room != null) {
+        // A game finishes once; its result is recorded on FINISHED
+        if (room != null && room.getStatus() != Room.RoomStatus.FINISHED) {
             room.setStatus(Room.RoomStatus.FINISHED);
 
             GameState gameState = gameStates.get(roomId);
             gameState.setStatus(GameState.GameStatus.FINISHED);
             gameState.setEndTime(java.time.LocalDateTime.now());
             gameState.calculateFinalScores();
+            eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.FINISHED));
         }
     }
 
@@ -169,11 +226,21 @@ public class RoomService {
         player.setCharacter(randomClass, randomRace);
     }
 
+    // Bots get negative ids so they never collide with user ids and can be addressed by turn scheduling
+    private Long botId(int botNumber) {
+        return (long) -botNumber;
+    }
+
     private String generateRoomId() {
-        return UUID.randomUUID().toString().substring(0, 8);
+        // The id names this node as owner, so the room stays here when cluster membership changes
+        return roomDirectory.newRoomId();
     }
 
     public void addBotToRoom(String roomId) {
+        roomExecutor.run(roomId, () -> applyAddBot(roomId));
+    }
+
+    private void applyAddBot(String roomId) {
         Room room = rooms.get(roomId);
         if (room == null) {
             throw new RuntimeException("Room not found");
@@ -187,10 +254,12 @@ public class RoomService {
                 .filter(Player::isBot)
                 .count() + 1;
 
-        Player bot = new Player(null, "Bot " + botNumber, true);
+        Player bot = new Player(botId(botNumber), "Bot " + botNumber, true);
         room.addPlayer(bot);
 
         GameState gameState = gameStates.get(roomId);
         gameState.setPlayers(room.getPlayers());
+        gameState.bumpVersion();
+        eventPublisher.publishEvent(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.UPDATED));
     }
 }
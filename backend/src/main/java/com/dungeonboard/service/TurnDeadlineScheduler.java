@@ -0,0 +1,165 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-turn deadlines for human players, driven by the shared game timer.
+ * When a deadline expires and the same turn is still waiting for a roll,
+ * the server rolls or skips for the player through GameService.
+ */
+@Component
+public class TurnDeadlineScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TurnDeadlineScheduler.class);
+
+    public enum AfkAction {
+        ROLL, SKIP
+    }
+
+    @Lazy
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCommandExecutor roomExecutor;
+
+    private final ScheduledExecutorService timer;
+    private final AfkAction afkAction;
+
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+    private final AtomicLong armedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    public TurnDeadlineScheduler(@Qualifier("gameTimer") ScheduledExecutorService timer,
+                                 @Value("${game.turn.afk-action:ROLL}") AfkAction afkAction) {
+        this.timer = timer;
+        this.afkAction = afkAction;
+    }
+
+    /**
+     * Arm the deadline for the turn that just started, replacing the room's previous deadline.
+     * Must be called on the room's command executor.
+     */
+    public void arm(String roomId, GameState gameState, int timeoutSeconds) {
+        Player player = gameState.getCurrentPlayer();
+        if (timeoutSeconds <= 0 || player == null) {
+            disarm(roomId, gameState);
+            return;
+        }
+
+        Deadline deadline = new Deadline(player.getId().toString(),
+                gameState.getCurrentRound(), gameState.getCurrentPlayerIndex());
+        gameState.setTurnDeadlineAt(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds));
+
+        Deadline previous = deadlines.put(roomId, deadline);
+        if (previous != null) {
+            previous.cancel();
+        }
+        deadline.future = timer.schedule(() -> expire(roomId, deadline), timeoutSeconds, TimeUnit.SECONDS);
+        armedCount.incrementAndGet();
+    }
+
+    /**
+     * Clear the room's deadline, e.g. when a bot takes the turn
+     */
+    public void disarm(String roomId, GameState gameState) {
+        gameState.setTurnDeadlineAt(0);
+        cancel(roomId);
+    }
+
+    @EventListener
+    public void onRoomLifecycle(RoomLifecycleEvent event) {
+        if (event.type() == RoomLifecycleEvent.Type.FINISHED || event.type() == RoomLifecycleEvent.Type.REMOVED) {
+            cancel(event.roomId());
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(deadlines.size(), armedCount.get(), expiredCount.get(), afkAction);
+    }
+
+    private void cancel(String roomId) {
+        Deadline deadline = deadlines.remove(roomId);
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    private void expire(String roomId, Deadline deadline) {
+        if (!deadlines.remove(roomId, deadline)) {
+            return;
+        }
+
+        roomExecutor.submit(roomId, () -> {
+            applyExpiry(roomId, deadline);
+            return null;
+        });
+    }
+
+    private void applyExpiry(String roomId, Deadline deadline) {
+        GameState gameState = roomService.getGameState(roomId);
+        if (gameState == null
+                || gameState.getStatus() != GameState.GameStatus.IN_PROGRESS
+                || !gameState.isWaitingForRoll()) {
+            return;
+        }
+
+        // The player acted and the turn moved on while the expiry was queued
+        Player current = gameState.getCurrentPlayer();
+        if (current == null
+                || !current.getId().toString().equals(deadline.playerId)
+                || gameState.getCurrentRound() != deadline.round
+                || gameState.getCurrentPlayerIndex() != deadline.playerIndex) {
+            return;
+        }
+
+        expiredCount.incrementAndGet();
+        logger.info("Turn deadline expired for {} in room {}, applying {}", current.getUsername(), roomId, afkAction);
+
+        switch (afkAction) {
+            case ROLL -> gameService.rollDice(roomId, deadline.playerId);
+            case SKIP -> gameService.skipTurn(roomId, deadline.playerId);
+        }
+    }
+
+    private static final class Deadline {
+        private final String playerId;
+        private final int round;
+        private final int playerIndex;
+        private volatile ScheduledFuture<?> future;
+
+        private Deadline(String playerId, int round, int playerIndex) {
+            this.playerId = playerId;
+            this.round = round;
+            this.playerIndex = playerIndex;
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    public record Stats(int armed, long armedTotal, long expired, AfkAction afkAction) {}
+}
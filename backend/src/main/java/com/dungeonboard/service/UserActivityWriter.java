@@ -0,0 +1,210 @@
+package com.dungeonboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind buffer for user activity columns (last login, online flag, last seen).
+ * Updates are coalesced per user in memory and written as one JDBC batch every
+ * auth.activity.flush-interval-ms, or sooner once auth.activity.batch-size users are pending.
+ * <p>
+ * Online flags are kept honest with a last_seen heartbeat: every node refreshes its connected users
+ * a few times per auth.activity.online-timeout-ms, and clears the flag of users nobody refreshed
+ * within it. That includes flags left set by a node that crashed or restarted; the first flush
+ * after startup clears them. Connection counts are per JVM, so a user connected to two nodes is
+ * marked offline when either node closes its last socket, until the other node's next heartbeat.
+ */
+@Service
+public class UserActivityWriter extends BatchingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityWriter.class);
+
+    // Null parameters keep the column's current value, so one statement serves every kind of update
+    private static final String UPDATE_SQL = "UPDATE users SET "
+            + "last_login = COALESCE(?, last_login), "
+            + "is_online = COALESCE(?, is_online), "
+            + "last_seen = COALESCE(?, last_seen) "
+            + "WHERE id = ?";
+
+    private static final String HEARTBEAT_SQL = "UPDATE users SET is_online = TRUE, last_seen = ? WHERE id = ?";
+    private static final String STALE_CONDITION = "is_online = TRUE AND (last_seen IS NULL OR last_seen < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserCache userCache;
+
+    private final Map<Long, Activity> pending = new ConcurrentHashMap<>();
+    // Open WebSocket connections per user; a user is online while any of them is
+    private final Map<Long, Integer> connections = new ConcurrentHashMap<>();
+
+    private final long onlineTimeoutMs;
+    private long lastHeartbeat; // Only touched by flushes, which never overlap
+    private final AtomicLong markedOffline = new AtomicLong();
+
+    public UserActivityWriter(@Value("${auth.activity.flush-interval-ms:1000}") long flushIntervalMs,
+                              @Value("${auth.activity.batch-size:500}") int batchSize,
+                              @Value("${auth.activity.online-timeout-ms:180000}") long onlineTimeoutMs) {
+        super("user-activity-writer", flushIntervalMs, batchSize);
+        this.onlineTimeoutMs = onlineTimeoutMs;
+    }
+
+    public void recordLogin(Long userId, String username) {
+        LocalDateTime now = LocalDateTime.now();
+        record(userId, username, activity -> {
+            activity.lastLogin = now;
+            activity.lastSeen = now;
+        });
+    }
+
+    public void recordConnected(Long userId, String username) {
+        if (connections.merge(userId, 1, Integer::sum) == 1) {
+            record(userId, username, activity -> {
+                activity.online = true;
+                activity.lastSeen = LocalDateTime.now();
+            });
+        } else {
+            recordSeen(userId, username);
+        }
+    }
+
+    public void recordDisconnected(Long userId, String username) {
+        Integer remaining = connections.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            record(userId, username, activity -> {
+                activity.online = false;
+                activity.lastSeen = LocalDateTime.now();
+            });
+        } else {
+            recordSeen(userId, username);
+        }
+    }
+
+    public void recordSeen(Long userId, String username) {
+        LocalDateTime now = LocalDateTime.now();
+        record(userId, username, activity -> activity.lastSeen = now);
+    }
+
+    public Stats getStats() {
+        return new Stats(pending.size(), connections.size(), getBatchSize(),
+                getRecorded(), getWritten(), getBatches(), getFailed(), markedOffline.get());
+    }
+
+    private void record(Long userId, String username, Consumer<Activity> update) {
+        pending.compute(userId, (id, activity) -> {
+            Activity merged = activity != null ? activity : new Activity(id, username);
+            update.accept(merged);
+            return merged;
+        });
+        recorded(pending.size());
+    }
+
+    @Override
+    protected void writePending() {
+        writeActivity();
+
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= onlineTimeoutMs / 3) {
+            lastHeartbeat = now;
+            refreshOnline();
+        }
+    }
+
+    private void writeActivity() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Take each user's coalesced update; later activity starts a fresh entry for the next flush
+        List<Activity> batch = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            Activity activity = pending.remove(userId);
+            if (activity != null) {
+                batch.add(activity);
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, getBatchSize(), (ps, activity) -> {
+                ps.setObject(1, timestamp(activity.lastLogin), Types.TIMESTAMP);
+                ps.setObject(2, activity.online, Types.BOOLEAN);
+                ps.setObject(3, timestamp(activity.lastSeen), Types.TIMESTAMP);
+                ps.setLong(4, activity.userId);
+            });
+            batchWritten(batch.size());
+        } catch (Exception e) {
+            // Activity is best-effort; dropping a batch beats retrying into a struggling database
+            batchFailed(batch.size());
+            logger.error("Error writing activity for {} users", batch.size(), e);
+        }
+
+        for (Activity activity : batch) {
+            userCache.invalidate(activity.username);
+        }
+    }
+
+    /**
+     * Heartbeat this node's connected users, then clear the online flag of users no node has
+     * refreshed within the online timeout
+     */
+    private void refreshOnline() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<Long> connected = new ArrayList<>(connections.keySet());
+            if (!connected.isEmpty()) {
+                jdbcTemplate.batchUpdate(HEARTBEAT_SQL, connected, getBatchSize(), (ps, userId) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setLong(2, userId);
+                });
+            }
+
+            Timestamp cutoff = Timestamp.valueOf(now.minusNanos(onlineTimeoutMs * 1_000_000));
+            List<String> stale = jdbcTemplate.queryForList(
+                    "SELECT username FROM users WHERE " + STALE_CONDITION, String.class, cutoff);
+            if (stale.isEmpty()) {
+                return;
+            }
+            int cleared = jdbcTemplate.update("UPDATE users SET is_online = FALSE WHERE " + STALE_CONDITION, cutoff);
+            markedOffline.addAndGet(cleared);
+            stale.forEach(userCache::invalidate);
+        } catch (Exception e) {
+            logger.error("Error refreshing online users", e);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    // Mutated only inside pending.compute, so each instance is confined to one writer at a time
+    private static final class Activity {
+        private final long userId;
+        private final String username;
+        private LocalDateTime lastLogin;
+        private Boolean online;
+        private LocalDateTime lastSeen;
+
+        private Activity(long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+    }
+
+    public record Stats(int pendingUsers, int onlineUsers, int batchSize,
+                        long recorded, long written, long batches, long failed, long markedOffline) {}
+}
@@ -0,0 +1,87 @@
+package com.dungeonboard.service;
+
+import com.dungeonboard.model.User;
+import com.dungeonboard.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, expiring cache of User entities by username, for the few paths that need more than
+ * the JWT's claims. Least recently used entries are evicted beyond auth.user-cache.max-size, and
+ * entries older than auth.user-cache.ttl-seconds are reloaded. Misses for unknown users are not cached.
+ */
+@Service
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserCache(@Value("${auth.user-cache.max-size:1000}") int maxSize,
+                     @Value("${auth.user-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserCache.this.maxSize;
+            }
+        };
+    }
+
+    public User getByUsername(String username) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.user;
+            }
+        }
+
+        // Load outside the lock; two concurrent misses both query, which is harmless
+        misses.incrementAndGet();
+        User user = userRepository.findByUsername(username).orElse(null);
+        synchronized (entries) {
+            if (user != null) {
+                entries.put(username, new Entry(user, now));
+            } else {
+                entries.remove(username);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Drop a user after its entity was changed, so the next read sees the update
+     */
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(size, maxSize, hits.get(), misses.get());
+    }
+
+    private record Entry(User user, long loadedAt) {}
+
+    public record Stats(int users, int maxSize, long hits, long misses) {}
+}
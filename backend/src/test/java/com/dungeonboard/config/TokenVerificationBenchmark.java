@@ -0,0 +1,56 @@
+package com.dungeonboard.config;
+
+import com.dungeonboard.model.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares the cold token-verification path (signature check and claims parse) with the warm path
+ * (digest and {@link VerifiedTokenCache} hit). Not part of the test suite; run its main method with
+ * the test classpath, e.g. from the IDE. Arguments: token count (default 200000), rounds (default 5).
+ */
+public class TokenVerificationBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForJWTTokenVerificationMustBeLongEnough123456789";
+
+    public static void main(String[] args) {
+        int tokenCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 86_400_000);
+        jwtUtil.init();
+
+        String[] tokens = new String[tokenCount];
+        User user = new User();
+        for (int i = 0; i < tokenCount; i++) {
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            tokens[i] = jwtUtil.generateJwtToken(user);
+        }
+
+        // The first rounds are warmup; compare the last ones
+        for (int round = 1; round <= rounds; round++) {
+            // Cold: a fresh cache, so every token is verified and parsed
+            ReflectionTestUtils.setField(jwtUtil, "verifiedTokens", new VerifiedTokenCache(tokenCount + 1));
+            long coldNanos = verifyAll(jwtUtil, tokens);
+            // Warm: the same tokens again, now all cached
+            long warmNanos = verifyAll(jwtUtil, tokens);
+
+            System.out.printf("round %d: cold %,d ns/token (%,d/s), warm %,d ns/token (%,d/s), %.1fx%n",
+                    round, coldNanos / tokenCount, tokenCount * 1_000_000_000L / coldNanos,
+                    warmNanos / tokenCount, tokenCount * 1_000_000_000L / warmNanos,
+                    (double) coldNanos / warmNanos);
+        }
+    }
+
+    private static long verifyAll(JwtUtil jwtUtil, String[] tokens) {
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            if (jwtUtil.parseToken(token) == null) {
+                throw new IllegalStateException("Token rejected: " + token);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
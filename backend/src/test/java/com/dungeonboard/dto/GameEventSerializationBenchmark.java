@@ -0,0 +1,100 @@
+package com.dungeonboard.dto;
+
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
+import com.dungeonboard.model.Player;
+import com.dungeonboard.model.character.PlayerClass;
+import com.dungeonboard.model.character.Race;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Compares a GAME_STATE event that embeds the live {@link GameState}, as events did before the DTO
+ * projection, with {@link GameEvent#gameStateUpdate} as it is now: JSON bytes, allocated bytes and
+ * time per event, each including building the event. Not part of the test suite; run its main method
+ * with the test classpath, e.g. from the IDE. Arguments: events per round (default 200000), rounds
+ * (default 5).
+ */
+public class GameEventSerializationBenchmark {
+
+    /**
+     * The event shape before the projection: the live state rides along next to the payload
+     */
+    record EmbeddingGameEvent(String type, Object data, String message, GameState gameState, long version, long seq) {}
+
+    public static void main(String[] args) throws JsonProcessingException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        GameState state = sampleState();
+
+        Supplier<Object> baseline = () ->
+                new EmbeddingGameEvent("GAME_STATE", null, null, state, state.getVersion(), 0);
+        Supplier<Object> projection = () -> GameEvent.gameStateUpdate(state);
+
+        System.out.printf("bytes/event: baseline %,d, projection %,d%n",
+                objectMapper.writeValueAsBytes(baseline.get()).length,
+                objectMapper.writeValueAsBytes(projection.get()).length);
+
+        // The first rounds are warmup; compare the last ones
+        for (int round = 1; round <= rounds; round++) {
+            Result before = serializeAll(objectMapper, baseline, events);
+            Result after = serializeAll(objectMapper, projection, events);
+
+            System.out.printf("round %d: baseline %,d B alloc/event %,d ns/event, projection %,d B alloc/event %,d ns/event%n",
+                    round, before.allocatedBytes() / events, before.nanos() / events,
+                    after.allocatedBytes() / events, after.nanos() / events);
+        }
+    }
+
+    /**
+     * A room mid-game as RoomService creates it: 24 tiles, four players, a full game log
+     */
+    private static GameState sampleState() {
+        GameState state = new GameState("node-1-0a1b2c3d", 24);
+        for (int i = 0; i < 4; i++) {
+            Player player = new Player((long) i + 1, "player" + (i + 1), i == 3);
+            player.setCharacter(PlayerClass.values()[i % PlayerClass.values().length],
+                    Race.values()[i % Race.values().length]);
+            player.setPosition(i * 5);
+            player.addGold(10 * i);
+            state.getPlayers().add(player);
+        }
+        state.setStatus(GameState.GameStatus.IN_PROGRESS);
+        state.setStartTime(LocalDateTime.now());
+        state.setCurrentRound(4);
+        state.setLastEvent("player2 found a treasure with 12 gold!");
+        for (int i = 0; i < 200; i++) {
+            Player player = state.getPlayers().get(i % 4);
+            state.log(LogCode.ROLLED, player, 1 + i % 6);
+            state.log(LogCode.MOVED, player, i % 24);
+        }
+        state.bumpVersion();
+        return state;
+    }
+
+    private static Result serializeAll(ObjectMapper objectMapper, Supplier<Object> events, int count)
+            throws JsonProcessingException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sink += objectMapper.writeValueAsBytes(events.get()).length;
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        if (sink == 0) {
+            throw new IllegalStateException("Nothing serialized");
+        }
+        return new Result(allocated, nanos);
+    }
+
+    private record Result(long allocatedBytes, long nanos) {}
+}
@@ -0,0 +1,230 @@
+package com.dungeonboard.handler;
+
+import com.dungeonboard.dto.ClientCommand;
+import com.dungeonboard.dto.CommandAck;
+import com.dungeonboard.dto.GameEvent;
+import com.dungeonboard.dto.GameStateDTO;
+import com.dungeonboard.dto.GameStateDelta;
+import com.dungeonboard.dto.LobbyRoom;
+import com.dungeonboard.dto.LobbyUpdate;
+import com.dungeonboard.model.GameLog;
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
+import com.dungeonboard.model.Player;
+import com.dungeonboard.model.character.PlayerClass;
+import com.dungeonboard.model.character.Race;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryProtocolCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryProtocolCodec codec = new BinaryProtocolCodec(objectMapper);
+
+    @Test
+    void everyCommandTypeRoundTrips() {
+        List<String> types = new ArrayList<>(BinaryProtocolCodec.COMMAND_TYPES);
+        types.add("SOME_FUTURE_COMMAND"); // Sent by name
+        for (String type : types) {
+            for (ClientCommand command : List.of(
+                    new ClientCommand(type, null, null, null, null),
+                    new ClientCommand(type, "node-1-0a1b2c3d", 42L, "cmd-7", null),
+                    new ClientCommand(type, "node-1-0a1b2c3d", null, null, 1L << 40))) {
+                byte[] encoded = codec.encodeCommand(command);
+                assertThat(codec.decodeCommand(ByteBuffer.wrap(encoded))).isEqualTo(command);
+            }
+        }
+    }
+
+    @Test
+    void everyEventTypeRoundTrips() {
+        Map<String, GameEvent> samples = sampleEvents();
+        assertThat(new ArrayList<>(samples.keySet()).subList(0, BinaryProtocolCodec.EVENT_TYPES.size()))
+                .containsExactlyElementsOf(BinaryProtocolCodec.EVENT_TYPES);
+
+        for (GameEvent event : samples.values()) {
+            GameEvent decoded = codec.decodeEvent(ByteBuffer.wrap(encode(event)));
+            assertThat(decoded).isEqualTo(asDecoded(event));
+        }
+    }
+
+    @Test
+    void tileDescriptionsComeFromTheTileType() {
+        GameStateDTO state = GameStateDTO.fromGameState(sampleState());
+        state.getTiles().forEach(tile -> tile.setDescription("not sent"));
+
+        GameEvent decoded = codec.decodeEvent(ByteBuffer.wrap(encode(GameEvent.gameSnapshot(state))));
+
+        List<GameStateDTO.SimpleTile> tiles = ((GameStateDTO) decoded.getData()).getTiles();
+        assertThat(tiles).isEqualTo(GameStateDTO.fromGameState(sampleState()).getTiles());
+    }
+
+    @Test
+    void truncatedFramesAreRejected() {
+        List<byte[]> frames = new ArrayList<>();
+        sampleEvents().values().forEach(event -> frames.add(encode(event)));
+        for (int i = 0; i < frames.size(); i++) {
+            byte[] frame = frames.get(i);
+            for (int length = 0; length < frame.length; length++) {
+                ByteBuffer prefix = ByteBuffer.wrap(Arrays.copyOf(frame, length));
+                assertThatThrownBy(() -> codec.decodeEvent(prefix))
+                        .isExactlyInstanceOf(RuntimeException.class)
+                        .hasMessageStartingWith("Malformed binary message");
+            }
+        }
+
+        byte[] command = codec.encodeCommand(new ClientCommand("RESUME", "node-1-0a1b2c3d", 3L, "cmd-1", 9L));
+        for (int length = 0; length < command.length; length++) {
+            ByteBuffer prefix = ByteBuffer.wrap(Arrays.copyOf(command, length));
+            assertThatThrownBy(() -> codec.decodeCommand(prefix))
+                    .isExactlyInstanceOf(RuntimeException.class)
+                    .hasMessageStartingWith("Malformed binary message");
+        }
+    }
+
+    @Test
+    void garbageIsRejectedWithoutEscapingExceptions() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            byte[] garbage = new byte[random.nextInt(48)];
+            random.nextBytes(garbage);
+            decodeOrReject(() -> codec.decodeCommand(ByteBuffer.wrap(garbage)));
+            decodeOrReject(() -> codec.decodeEvent(ByteBuffer.wrap(garbage)));
+        }
+
+        // A type code that overflows an int, then a string length far beyond the frame
+        byte[] hugeCode = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        byte[] hugeRoomId = {1, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'x'};
+        for (byte[] garbage : List.of(hugeCode, hugeRoomId)) {
+            assertThatThrownBy(() -> codec.decodeCommand(ByteBuffer.wrap(garbage)))
+                    .isExactlyInstanceOf(RuntimeException.class);
+        }
+        // BATCH with an event count far beyond the frame
+        byte[] hugeBatch = {18, 0, 0, 0, 7, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        for (byte[] garbage : List.of(hugeCode, hugeBatch)) {
+            assertThatThrownBy(() -> codec.decodeEvent(ByteBuffer.wrap(garbage)))
+                    .isExactlyInstanceOf(RuntimeException.class);
+        }
+    }
+
+    /**
+     * One event per type code, in code order, then one sent by name
+     */
+    private static Map<String, GameEvent> sampleEvents() {
+        GameState gameState = sampleState();
+        GameStateDTO state = GameStateDTO.fromGameState(gameState);
+        Player player = gameState.getPlayers().get(0);
+
+        GameStateDTO previous = GameStateDTO.fromGameState(gameState, false);
+        gameState.getPlayers().get(1).addGold(15);
+        gameState.setCurrentPlayerIndex(2);
+        gameState.setLastEvent("player2 found a treasure with 15 gold!");
+        GameStateDelta delta = GameStateDelta.between(previous, GameStateDTO.fromGameState(gameState, false));
+
+        LobbyRoom lobbyRoom = new LobbyRoom("node-1-0a1b2c3d", "Friday dungeon", 2, 4, 1_700_000_000_000L);
+        LobbyUpdate lobbyUpdate = new LobbyUpdate();
+        lobbyUpdate.getUpdated().add(lobbyRoom);
+        lobbyUpdate.getRemoved().add("node-2-00ff00ff");
+
+        Map<String, GameEvent> events = new LinkedHashMap<>();
+        events.put("GAME_STATE", GameEvent.gameSnapshot(state).withSeq(12));
+        events.put("STATE_DELTA", GameEvent.stateDelta(delta).withVersion(8).withSeq(13));
+        events.put("PLAYER_JOINED", GameEvent.playerJoined(player));
+        events.put("PLAYER_LEFT", GameEvent.playerLeft(player));
+        events.put("GAME_STARTED", GameEvent.gameStarted());
+        events.put("DICE_ROLLED", GameEvent.diceRolled(6));
+        events.put("PLAYER_MOVED", GameEvent.playerMoved("player1", 17));
+        events.put("COMBAT_RESULT", GameEvent.combatResult("player1 defeated a level 2 monster", true));
+        events.put("TREASURE_FOUND", GameEvent.treasureFound(12));
+        events.put("TRAP_TRIGGERED", GameEvent.trapTriggered(-3));
+        events.put("EVENT_CARD", GameEvent.eventCard("Event card drawn: Blessing"));
+        events.put("ABILITY_USED", GameEvent.abilityUsed("player1"));
+        events.put("TURN_SKIPPED", GameEvent.turnSkipped("player3"));
+        events.put("GAME_OVER", GameEvent.gameOver("player2"));
+        events.put("REDIRECT", GameEvent.redirect("ws://node-2:8080/ws/game"));
+        events.put("ERROR", GameEvent.error("Room not found"));
+        events.put("STALE_STATE", GameEvent.staleState(1L << 35));
+        events.put("BATCH", GameEvent.batch(List.of(
+                GameEvent.diceRolled(4).withSeq(14), GameEvent.stateDelta(delta).withVersion(9).withSeq(15))));
+        events.put("ACK", GameEvent.commandAck(CommandAck.of("cmd-7", GameEvent.diceRolled(3).withVersion(9))));
+        events.put("LOBBY_SNAPSHOT", GameEvent.lobbySnapshot(List.of(lobbyRoom)));
+        events.put("LOBBY_UPDATE", GameEvent.lobbyUpdate(lobbyUpdate));
+        events.put("LOG", GameEvent.log(List.of(new GameLog.Entry(1, "player1 rolled a 6!"),
+                new GameLog.Entry(2, "player1 moved to position 6"))));
+        events.put("SOME_FUTURE_EVENT", new GameEvent("SOME_FUTURE_EVENT", "data", "sent by name"));
+        return events;
+    }
+
+    private static GameState sampleState() {
+        GameState state = new GameState("node-1-0a1b2c3d", 24);
+        for (int i = 0; i < 4; i++) {
+            // Bots have negative ids
+            Player player = new Player(i == 3 ? -1L : i + 1L, "player" + (i + 1), i == 3);
+            player.setCharacter(PlayerClass.values()[i], Race.values()[i]);
+            player.setPosition(i * 5);
+            state.getPlayers().add(player);
+        }
+        state.setStatus(GameState.GameStatus.IN_PROGRESS);
+        state.setCurrentRound(3);
+        state.setWaitingForRoll(true);
+        state.setTurnDeadlineAt(1_700_000_030_000L);
+        state.log(LogCode.ROLLED, state.getPlayers().get(0), 6);
+        state.bumpVersion();
+        return state;
+    }
+
+    private byte[] encode(GameEvent event) {
+        try {
+            return codec.encodeEvent(event);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The event as the decoder returns it: integers that fit come back as Integer,
+     * payloads without a binary schema as the maps and lists of their JSON form
+     */
+    @SuppressWarnings("unchecked")
+    private GameEvent asDecoded(GameEvent event) {
+        Object data = event.getData();
+        if (data instanceof Long value && value == value.intValue()) {
+            data = value.intValue();
+        } else if (data instanceof CommandAck ack) {
+            data = new CommandAck(ack.getCommandId(), ack.isAccepted(), asDecoded(ack.getResult()));
+        } else if ("BATCH".equals(event.getType())) {
+            data = ((List<GameEvent>) data).stream().map(this::asDecoded).toList();
+        } else if (!(data == null || data instanceof Number || data instanceof Boolean || data instanceof String
+                || data instanceof GameStateDTO || data instanceof GameStateDelta)) {
+            data = fromJson(data);
+        }
+        return new GameEvent(event.getType(), data, event.getMessage(), event.getVersion(), event.getSeq());
+    }
+
+    private Object fromJson(Object data) {
+        try {
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(data), Object.class);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void decodeOrReject(Runnable decode) {
+        try {
+            decode.run();
+        } catch (RuntimeException e) {
+            assertThat(e).isExactlyInstanceOf(RuntimeException.class);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dungeonboard.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailIsCutOffAtTheLastIntactRecord() throws IOException {
+        GameJournal journal = open();
+        journal.commit(List.of(state("room-1", "v1"), state("room-2", "v1")));
+        journal.closeJournal();
+        long intactSize = Files.size(journal.journalFile());
+
+        // A crash halfway through the next frame
+        byte[] frame = GameJournal.frame(3, state("room-1", "v2"));
+        Files.write(journal.journalFile(), Arrays.copyOf(frame, frame.length / 2), StandardOpenOption.APPEND);
+
+        GameJournal recovered = open();
+        assertThat(recovered.images()).containsOnlyKeys("room-1", "room-2");
+        assertThat(recovered.images().get("room-1")).isEqualTo(image("v1"));
+        assertThat(recovered.lastLsn()).isEqualTo(2);
+        assertThat(Files.size(recovered.journalFile())).isEqualTo(intactSize);
+
+        // New records land right after the intact ones and are replayed next time
+        recovered.commit(List.of(state("room-1", "v3")));
+        recovered.closeJournal();
+        GameJournal reopened = open();
+        assertThat(reopened.images().get("room-1")).isEqualTo(image("v3"));
+        assertThat(reopened.lastLsn()).isEqualTo(3);
+        reopened.closeJournal();
+    }
+
+    @Test
+    void corruptRecordEndsReplay() throws IOException {
+        GameJournal journal = open();
+        journal.commit(List.of(state("room-1", "v1")));
+        journal.commit(List.of(state("room-1", "v2")));
+        journal.commit(List.of(state("room-1", "v3")));
+        journal.closeJournal();
+
+        // Flip the last byte of the second record's image: its checksum no longer matches
+        byte[] bytes = Files.readAllBytes(journal.journalFile());
+        int secondEnd = 2 * GameJournal.frame(1, state("room-1", "v1")).length;
+        bytes[secondEnd - 1] ^= 1;
+        Files.write(journal.journalFile(), bytes);
+
+        GameJournal recovered = open();
+        assertThat(recovered.images().get("room-1")).isEqualTo(image("v1"));
+        assertThat(recovered.lastLsn()).isEqualTo(1);
+        recovered.closeJournal();
+    }
+
+    @Test
+    void snapshotIsReplayedWithTheRecordsAfterIt() throws IOException {
+        GameJournal journal = open();
+        journal.commit(List.of(state("room-1", "v1"), state("room-2", "v1"), state("room-3", "v1")));
+        journal.snapshot();
+        journal.commit(List.of(state("room-1", "v2"), removed("room-2")));
+        journal.commit(List.of(state("room-4", "v1")));
+        journal.closeJournal();
+
+        GameJournal recovered = create();
+        assertThat(recovered.replay()).isEqualTo(3);
+        assertThat(recovered.images()).containsOnlyKeys("room-1", "room-3", "room-4");
+        assertThat(recovered.images().get("room-1")).isEqualTo(image("v2"));
+        assertThat(recovered.images().get("room-3")).isEqualTo(image("v1"));
+        assertThat(recovered.lastLsn()).isEqualTo(6);
+        recovered.closeJournal();
+    }
+
+    @Test
+    void recordsCoveredBySnapshotAreSkippedByLsn() throws IOException {
+        GameJournal journal = open();
+        journal.commit(List.of(state("room-1", "v1"), state("room-2", "v1")));
+        journal.commit(List.of(state("room-1", "v2"), removed("room-2")));
+        byte[] beforeSnapshot = Files.readAllBytes(journal.journalFile());
+        journal.snapshot();
+        journal.closeJournal();
+
+        // A crash between writing the snapshot and truncating the journal
+        Files.write(journal.journalFile(), beforeSnapshot);
+
+        GameJournal recovered = create();
+        assertThat(recovered.replay()).isZero();
+        assertThat(recovered.images()).containsOnlyKeys("room-1");
+        assertThat(recovered.images().get("room-1")).isEqualTo(image("v2"));
+        assertThat(recovered.lastLsn()).isEqualTo(4);
+
+        // LSNs continue after the snapshot's, so the next records are not mistaken for covered ones
+        recovered.commit(List.of(state("room-2", "v2")));
+        recovered.closeJournal();
+        GameJournal reopened = open();
+        assertThat(reopened.images()).containsOnlyKeys("room-1", "room-2");
+        reopened.closeJournal();
+    }
+
+    private GameJournal open() throws IOException {
+        GameJournal journal = create();
+        journal.replay();
+        return journal;
+    }
+
+    private GameJournal create() throws IOException {
+        GameJournal journal = new GameJournal(true, directory.toString(), "test", true, Long.MAX_VALUE, Long.MAX_VALUE);
+        Files.createDirectories(journal.journalFile().getParent());
+        return journal;
+    }
+
+    private static GameJournal.Record state(String roomId, String version) {
+        return new GameJournal.Record(GameJournal.TYPE_STATE, roomId, image(version));
+    }
+
+    private static GameJournal.Record removed(String roomId) {
+        return new GameJournal.Record(GameJournal.TYPE_REMOVED, roomId, null);
+    }
+
+    private static byte[] image(String version) {
+        return version.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,80 @@
+package com.dungeonboard.journal;
+
+import com.dungeonboard.model.GameState;
+import com.dungeonboard.model.LogCode;
+import com.dungeonboard.model.Player;
+import com.dungeonboard.model.Room;
+import com.dungeonboard.model.character.Character;
+import com.dungeonboard.model.character.PlayerClass;
+import com.dungeonboard.model.character.Race;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomImageCodecTest {
+
+    @Test
+    void roundTripKeepsRoomAndGameState() throws IOException {
+        Room room = new Room("room-1", "Dungeon night", "1", 4, true);
+        room.setStatus(Room.RoomStatus.IN_PROGRESS);
+        room.setCurrentRound(3);
+        room.setTurnTimeoutSeconds(30);
+
+        Player host = new Player(1L, "alice", false);
+        host.setPosition(7);
+        host.setGold(25);
+        host.setScore(40);
+        Character character = new Character(PlayerClass.ROGUE, Race.HALFLING);
+        character.setCurrentHp(12);
+        character.setAbilityUsedThisMatch(true);
+        host.setCharacter(character);
+        room.addPlayer(host);
+        room.addPlayer(new Player(-1L, "Bot 1", true));
+
+        GameState gameState = new GameState("room-1", 24);
+        gameState.setPlayers(room.getPlayers());
+        gameState.setStatus(GameState.GameStatus.IN_PROGRESS);
+        gameState.setCurrentPlayerIndex(1);
+        gameState.setCurrentRound(3);
+        gameState.setStartTime(LocalDateTime.of(2026, 10, 18, 12, 30, 5, 123_000_000));
+        gameState.setLastEvent("alice rolled a 4!");
+        gameState.setWaitingForRoll(true);
+        gameState.setTurnDeadlineAt(1_700_000_000_000L);
+        gameState.setVersion(42);
+        gameState.getGameLog().add(LogCode.ROLLED, host, 4);
+        gameState.getGameLog().add(LogCode.ROLLED, room.getPlayers().get(1), 6);
+
+        byte[] image = RoomImageCodec.encode(room, gameState);
+        RoomImageCodec.RoomImage decoded = RoomImageCodec.decode(image);
+
+        Room restoredRoom = decoded.room();
+        GameState restoredState = decoded.gameState();
+        assertThat(restoredRoom.getName()).isEqualTo("Dungeon night");
+        assertThat(restoredRoom.isPrivate()).isTrue();
+        assertThat(restoredRoom.getStatus()).isEqualTo(Room.RoomStatus.IN_PROGRESS);
+        assertThat(restoredRoom.getTurnTimeoutSeconds()).isEqualTo(30);
+        assertThat(restoredState.getPlayers()).isSameAs(restoredRoom.getPlayers());
+
+        Player restoredHost = restoredRoom.getPlayers().get(0);
+        assertThat(restoredHost.getUsername()).isEqualTo("alice");
+        assertThat(restoredHost.getPosition()).isEqualTo(7);
+        assertThat(restoredHost.getCharacter().getPlayerClass()).isEqualTo(PlayerClass.ROGUE);
+        assertThat(restoredHost.getCharacter().getCurrentHp()).isEqualTo(12);
+        assertThat(restoredHost.getCharacter().isAbilityUsedThisMatch()).isTrue();
+        assertThat(restoredRoom.getPlayers().get(1).isBot()).isTrue();
+        assertThat(restoredRoom.getPlayers().get(1).getCharacter()).isNull();
+
+        assertThat(restoredState.getBoard().getSize()).isEqualTo(24);
+        assertThat(restoredState.getStartTime()).isEqualTo(gameState.getStartTime());
+        assertThat(restoredState.getEndTime()).isNull();
+        assertThat(restoredState.isWaitingForRoll()).isTrue();
+        assertThat(restoredState.getVersion()).isEqualTo(42);
+        assertThat(restoredState.getGameLog().since(0)).isEqualTo(gameState.getGameLog().since(0));
+
+        // Nothing is lost or reinterpreted: encoding the decoded room again gives the same bytes
+        assertThat(RoomImageCodec.encode(restoredRoom, restoredState)).isEqualTo(image);
+    }
+}
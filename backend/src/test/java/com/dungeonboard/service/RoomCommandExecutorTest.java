@@ -0,0 +1,202 @@
+package com.dungeonboard.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoomCommandExecutorTest {
+
+    private final RoomCommandExecutor executor = new RoomCommandExecutor(4);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    void commandsForOneRoomRunOneAtATimeInSubmissionOrder() throws Exception {
+        executor.open("room-1");
+        executor.open("room-2");
+        List<Integer> applied = new ArrayList<>(); // Unsynchronized: only the room's worker touches it
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int command = i;
+            futures.add(executor.submit("room-1", () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlapped.set(true);
+                }
+                applied.add(command);
+                running.decrementAndGet();
+                return command;
+            }));
+            // Another room's commands share the workers meanwhile
+            executor.submit("room-2", () -> command);
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertThat(overlapped).isFalse();
+        assertThat(executor.execute("room-1", () -> new ArrayList<>(applied)))
+                .containsExactlyElementsOf(IntStream.range(0, 2000).boxed().toList());
+    }
+
+    @Test
+    void commandFromTheRoomsOwnWorkerRunsInline() throws Exception {
+        executor.open("room-1");
+        List<String> steps = new ArrayList<>();
+
+        // Queued behind the outer command, the nested one would never run
+        Thread nestedThread = executor.submit("room-1", () -> {
+            steps.add("outer");
+            Thread thread = executor.execute("room-1", () -> {
+                steps.add("nested");
+                return Thread.currentThread();
+            });
+            steps.add("outer done");
+            assertThat(thread).isSameAs(Thread.currentThread());
+            return thread;
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(nestedThread.getName()).startsWith("room-worker-");
+        assertThat(steps).containsExactly("outer", "nested", "outer done");
+    }
+
+    @Test
+    void afterCommandHooksRunOnceNestedCommandsHaveFinished() throws Exception {
+        executor.open("room-1");
+        List<String> steps = new CopyOnWriteArrayList<>();
+        executor.addCommandListener(roomId -> steps.add("listener " + roomId));
+
+        executor.submit("room-1", () -> {
+            executor.afterCommand("room-1", () -> steps.add("outer hook"));
+            executor.run("room-1", () -> {
+                executor.afterCommand("room-1", () -> {
+                    steps.add("nested hook");
+                    // Hooks may register further hooks
+                    executor.afterCommand("room-1", () -> steps.add("late hook"));
+                });
+                steps.add("nested");
+            });
+            steps.add("outer done");
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+        // The future completes before the hooks; the next command runs after them
+        executor.run("room-1", () -> {});
+
+        assertThat(steps.subList(0, 6)).containsExactly("nested", "outer done", "outer hook", "nested hook",
+                "late hook", "listener room-1");
+    }
+
+    @Test
+    void afterCommandOutsideTheRoomRunsImmediately() {
+        executor.open("room-1");
+        List<String> steps = new ArrayList<>();
+
+        executor.afterCommand("room-1", () -> steps.add("hook"));
+
+        assertThat(steps).containsExactly("hook");
+    }
+
+    @Test
+    void submitFailsWithRoomNotFoundForUnknownAndClosedRooms() throws Exception {
+        assertThatThrownBy(() -> executor.execute("room-1", () -> "ran"))
+                .hasMessage("Room not found");
+
+        executor.open("room-1");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> queued = executor.submit("room-1", () -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<String> behind = executor.submit("room-1", () -> "second");
+        close("room-1");
+
+        // Commands queued before the room was removed still run; later ones are rejected
+        assertThatThrownBy(() -> executor.execute("room-1", () -> "third"))
+                .hasMessage("Room not found");
+        release.countDown();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(behind.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThatThrownBy(() -> executor.execute("room-1", () -> "fourth"))
+                .hasMessage("Room not found");
+
+        // The same id can be opened again
+        executor.open("room-1");
+        assertThat(executor.execute("room-1", () -> "reopened")).isEqualTo("reopened");
+    }
+
+    @Test
+    void submitRacingRetirementEitherRunsOrIsRejected() throws Exception {
+        for (int round = 0; round < 500; round++) {
+            String roomId = "room-" + round;
+            executor.open(roomId);
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<String>> futures = new CopyOnWriteArrayList<>();
+
+            Thread submitter = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < 20; i++) {
+                    futures.add(executor.submit(roomId, () -> "ran"));
+                }
+            });
+            submitter.start();
+            start.countDown();
+            close(roomId);
+            // Reopening while the old mailbox may be retiring must leave a working room
+            if (round % 2 == 0) {
+                executor.open(roomId);
+                assertThat(executor.submit(roomId, () -> "reopened").get(5, TimeUnit.SECONDS)).isEqualTo("reopened");
+            }
+            submitter.join();
+
+            for (CompletableFuture<String> future : futures) {
+                try {
+                    assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("ran");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).hasMessage("Room not found");
+                }
+            }
+        }
+    }
+
+    @Test
+    void quiesceWaitsForQueuedCommandsAndRejectsNewOnes() throws Exception {
+        executor.open("room-1");
+        AtomicInteger applied = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            executor.submit("room-1", applied::incrementAndGet);
+        }
+
+        assertThat(executor.quiesce(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(applied).hasValue(100);
+        assertThatThrownBy(() -> executor.execute("room-1", () -> "late"))
+                .hasMessage("Server is shutting down");
+    }
+
+    private void close(String roomId) {
+        executor.onRoomLifecycle(new RoomLifecycleEvent(roomId, RoomLifecycleEvent.Type.REMOVED));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,7 @@ const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api'
 class ApiService {
   constructor() {
     this.token = localStorage.getItem('token')
+    this.maxCommandAttempts = 3
   }
 
   setToken(token) {
@@ -49,6 +50,26 @@ class ApiService {
     }
   }
 
+  // Game commands carry a client-generated id, so a retry after a network failure
+  // gets the original result back instead of being applied twice
+  async sendCommand(endpoint, expectedVersion) {
+    const options = {
+      method: 'POST',
+      body: JSON.stringify({ expectedVersion, commandId: crypto.randomUUID() })
+    }
+
+    for (let attempt = 1; ; attempt++) {
+      try {
+        return await this.request(endpoint, options)
+      } catch (error) {
+        // fetch rejects with a TypeError only when the request never completed
+        if (!(error instanceof TypeError) || attempt >= this.maxCommandAttempts) {
+          throw error
+        }
+      }
+    }
+  }
+
   // Auth endpoints
   login(username, password) {
     return this.request('/auth/login', {
@@ -109,12 +130,12 @@ class ApiService {
   }
 
   // Game endpoints
-  rollDice(roomId) {
-    return this.request(`/game/${roomId}/roll`, { method: 'POST' })
+  rollDice(roomId, expectedVersion) {
+    return this.sendCommand(`/game/${roomId}/roll`, expectedVersion)
   }
 
-  reroll(roomId) {
-    return this.request(`/game/${roomId}/reroll`, { method: 'POST' })
+  reroll(roomId, expectedVersion) {
+    return this.sendCommand(`/game/${roomId}/reroll`, expectedVersion)
   }
 
   selectCharacter(roomId, classId, raceId) {
@@ -124,8 +145,8 @@ class ApiService {
     })
   }
 
-  useAbility(roomId) {
-    return this.request(`/game/${roomId}/ability`, { method: 'POST' })
+  useAbility(roomId, expectedVersion) {
+    return this.sendCommand(`/game/${roomId}/ability`, expectedVersion)
   }
 
   getClasses() {
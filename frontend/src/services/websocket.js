@@ -1,3 +1,21 @@
+// Large frames arrive deflated when the browser can inflate them; small ones stay JSON text
+const COMPRESSED_PROTOCOL = 'dungeon-board.v1.json+deflate'
+
+function supportsDeflateRaw() {
+  try {
+    new DecompressionStream('deflate-raw')
+    return true
+  } catch (error) {
+    return false
+  }
+}
+
+async function decodeFrame(payload) {
+  if (typeof payload === 'string') return JSON.parse(payload)
+  const stream = new Blob([payload]).stream().pipeThrough(new DecompressionStream('deflate-raw'))
+  return JSON.parse(await new Response(stream).text())
+}
+
 class WebSocketService {
   constructor() {
     this.ws = null
@@ -5,26 +23,38 @@ class WebSocketService {
     this.reconnectAttempts = 0
     this.maxReconnectAttempts = 5
     this.reconnectDelay = 3000
+    this.pendingCommands = new Map()
+    this.commandTimeout = 10000
+    this.inbox = Promise.resolve()
   }
 
   connect(url) {
     return new Promise((resolve, reject) => {
       try {
-        this.ws = new WebSocket(url)
+        this.ws = supportsDeflateRaw() ? new WebSocket(url, [COMPRESSED_PROTOCOL]) : new WebSocket(url)
+        this.ws.binaryType = 'arraybuffer'
 
         this.ws.onopen = () => {
           console.log('WebSocket connected')
+          const reconnected = this.reconnectAttempts > 0
           this.reconnectAttempts = 0
+          if (reconnected) this.emit('RECONNECTED', {})
           resolve()
         }
 
         this.ws.onmessage = (event) => {
-          try {
-            const data = JSON.parse(event.data)
-            this.emit(data.type, data)
-          } catch (error) {
+          // Inflating is asynchronous, so chain frames to keep them in order
+          this.inbox = this.inbox.then(() => decodeFrame(event.data)).then((data) => {
+            // Events produced by one game command arrive together
+            const events = data.type === 'BATCH' ? data.data : [data]
+            events.forEach(item => {
+              if (item.type === 'ACK') this.resolveCommand(item.data)
+              this.emit(item.type, item)
+              this.emit('*', item)
+            })
+          }).catch((error) => {
             console.error('Failed to parse WebSocket message:', error)
-          }
+          })
         }
 
         this.ws.onerror = (error) => {
@@ -67,6 +97,31 @@ class WebSocketService {
     }
   }
 
+  // Send a game command and resolve with its result once the server acknowledges it
+  sendCommand(message) {
+    const commandId = message.commandId || crypto.randomUUID()
+    return new Promise((resolve, reject) => {
+      const timer = setTimeout(() => {
+        this.pendingCommands.delete(commandId)
+        reject(new Error('Command timed out'))
+      }, this.commandTimeout)
+      this.pendingCommands.set(commandId, { resolve, reject, timer })
+      this.send({ ...message, commandId })
+    })
+  }
+
+  resolveCommand(ack) {
+    const pending = this.pendingCommands.get(ack.commandId)
+    if (!pending) return
+    this.pendingCommands.delete(ack.commandId)
+    clearTimeout(pending.timer)
+    if (ack.accepted) {
+      pending.resolve(ack.result)
+    } else {
+      pending.reject(new Error(ack.result?.message || 'Command rejected'))
+    }
+  }
+
   on(event, callback) {
     if (!this.listeners.has(event)) {
       this.listeners.set(event, [])
@@ -92,9 +147,11 @@ class WebSocketService {
 
   disconnect() {
     if (this.ws) {
-      this.reconnectAttempts = this.maxReconnectAttempts // Prevent reconnection
+      this.ws.onclose = null // Closed on purpose: no reconnect
       this.ws.close()
       this.ws = null
+      this.reconnectAttempts = 0
+      this.emit('DISCONNECTED', {})
     }
   }
 
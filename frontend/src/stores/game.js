@@ -12,6 +12,13 @@ export const useGameStore = defineStore('game', () => {
   const classes = ref([])
   const races = ref([])
   const isConnected = ref(false)
+  const gameLog = ref([])
+  const lastSeq = ref(0)
+  // Bumped whenever one of our turns begins, so views can reset per-turn state
+  const myTurnStarts = ref(0)
+  let lastLogSeq = 0
+  let fetchingLog = false
+  let resyncing = false
 
   // Computed
   const isAuthenticated = computed(() => !!token.value)
@@ -153,9 +160,16 @@ export const useGameStore = defineStore('game', () => {
     }
   }
 
+  // Game commands go over the authenticated socket when it is up, otherwise over HTTP
+  function sendGameCommand(type, roomId) {
+    const expectedVersion = gameState.value?.version
+    return ws.sendCommand({ type, roomId, expectedVersion })
+  }
+
   async function rollDice(roomId) {
     try {
-      return await api.rollDice(roomId)
+      if (ws.isConnected()) return await sendGameCommand('ROLL_DICE', roomId)
+      return await api.rollDice(roomId, gameState.value?.version)
     } catch (error) {
       throw error
     }
@@ -163,7 +177,8 @@ export const useGameStore = defineStore('game', () => {
 
   async function reroll(roomId) {
     try {
-      return await api.reroll(roomId)
+      if (ws.isConnected()) return await sendGameCommand('REROLL', roomId)
+      return await api.reroll(roomId, gameState.value?.version)
     } catch (error) {
       throw error
     }
@@ -171,7 +186,8 @@ export const useGameStore = defineStore('game', () => {
 
   async function useAbility(roomId) {
     try {
-      await api.useAbility(roomId)
+      if (ws.isConnected()) return await sendGameCommand('USE_ABILITY', roomId)
+      await api.useAbility(roomId, gameState.value?.version)
       await getGameState(roomId)
     } catch (error) {
       throw error
@@ -188,27 +204,78 @@ export const useGameStore = defineStore('game', () => {
     }
   }
 
-  function connectToRoom(roomId) {
+  function socketUrl() {
     // Use WebSocket URL from environment or fallback to localhost
     const apiBaseUrl = import.meta.env.VITE_API_URL || 'http://localhost:8080/api'
     const wsProtocol = apiBaseUrl.startsWith('https') ? 'wss' : 'ws'
     const wsHost = apiBaseUrl.replace('/api', '').replace(/^https?:\/\//, '')
-    const wsUrl = `${wsProtocol}://${wsHost}/ws/game`
+    return withToken(`${wsProtocol}://${wsHost}/ws/game`)
+  }
 
-    ws.connect(wsUrl).then(() => {
+  // The lobby's room list is pushed over the socket; the caller listens for LOBBY_* events
+  function connectToLobby() {
+    return ws.connect(socketUrl()).then(() => {
+      isConnected.value = true
+      ws.send({ type: 'SUBSCRIBE_LOBBY' })
+    })
+  }
+
+  // Spectators get the same events but join read-only
+  function connectToRoom(roomId, { spectate = false } = {}) {
+    const joinType = spectate ? 'SPECTATE' : 'JOIN_ROOM'
+    gameLog.value = []
+    lastLogSeq = 0
+    fetchingLog = false
+
+    ws.connect(socketUrl()).then(() => {
       isConnected.value = true
       // Send join room message
-      ws.send({ type: 'JOIN_ROOM', roomId })
+      ws.send({ type: joinType, roomId })
     }).catch((error) => {
       console.error('Failed to connect to WebSocket:', error)
       isConnected.value = false
     })
 
-    // Listen for game state updates
+    // Full snapshot (with the board) sent when we join the room
     ws.on('GAME_STATE', (data) => {
-      if (data.gameState) {
-        gameState.value = data.gameState
+      if (data.data) {
+        const previous = gameState.value
+        gameState.value = data.data
+        trackTurn(previous)
+        lastSeq.value = data.seq
+        resyncing = false
+        fetchLog(roomId, data.data.logSeq)
+      }
+    })
+
+    // Log lines are rendered on request; the state only says how far the log has grown
+    ws.on('LOG', (data) => {
+      fetchingLog = false
+      const entries = (data.data || []).filter(entry => entry.seq > lastLogSeq)
+      if (entries.length === 0) return
+      lastLogSeq = entries[entries.length - 1].seq
+      gameLog.value = [...gameLog.value, ...entries.map(entry => entry.text)].slice(-100)
+      fetchLog(roomId, gameState.value?.logSeq)
+    })
+
+    // Incremental state changes; a sequence gap means we missed an event, so ask for a fresh snapshot
+    ws.on('STATE_DELTA', (data) => {
+      if (!gameState.value || data.seq <= lastSeq.value) return
+      if (!data.data.keyframe && (resyncing || data.seq !== lastSeq.value + 1)) {
+        if (!resyncing) {
+          resyncing = true
+          ws.send({ type: joinType, roomId })
+        }
+        return
       }
+      resyncing = false
+      applyStateDelta(data.data, data.version)
+      fetchLog(roomId, gameState.value.logSeq)
+    })
+
+    // Every room event carries its position in the room's stream
+    ws.on('*', (data) => {
+      if (data.seq > lastSeq.value) lastSeq.value = data.seq
     })
 
     ws.on('PLAYER_JOINED', (data) => {
@@ -256,17 +323,82 @@ export const useGameStore = defineStore('game', () => {
 
     ws.on('ERROR', (data) => {
       console.error('Game error:', data.message)
+      fetchingLog = false
+    })
+
+    // The room is owned by another backend node; move the socket there
+    ws.on('REDIRECT', (data) => {
+      ws.disconnect()
+      ws.connect(withToken(data.data)).then(() => {
+        isConnected.value = true
+        ws.send({ type: joinType, roomId })
+      }).catch((error) => {
+        console.error('Failed to follow WebSocket redirect:', error)
+        isConnected.value = false
+      })
     })
 
     ws.on('DISCONNECTED', () => {
       isConnected.value = false
     })
 
+    // Ask only for the events we missed; the server falls back to a snapshot if they are gone
+    ws.on('RECONNECTED', () => {
+      isConnected.value = true
+      fetchingLog = false
+      if (gameState.value && lastSeq.value > 0) {
+        ws.send({ type: 'RESUME', roomId, lastSeq: lastSeq.value })
+      } else {
+        ws.send({ type: joinType, roomId })
+      }
+    })
+
     ws.on('MAX_RECONNECT_REACHED', () => {
       isConnected.value = false
     })
   }
 
+  // One request in flight at a time; the LOG handler asks again if the log grew meanwhile
+  function fetchLog(roomId, logSeq) {
+    if (fetchingLog || !logSeq || logSeq <= lastLogSeq) return
+    fetchingLog = true
+    ws.send({ type: 'FETCH_LOG', roomId, lastSeq: lastLogSeq })
+  }
+
+  // Browsers cannot send headers with a WebSocket handshake, so the JWT goes in the query string
+  function withToken(url) {
+    return token.value ? `${url}?token=${encodeURIComponent(token.value)}` : url
+  }
+
+  function applyStateDelta(delta, version) {
+    const state = gameState.value
+    const previous = { currentPlayerIndex: state.currentPlayerIndex, currentRound: state.currentRound }
+    const fields = ['status', 'currentPlayerIndex', 'currentRound', 'maxRounds', 'lastEvent',
+      'waitingForRoll', 'winnerId', 'turnDeadlineAt', 'logSeq']
+    fields.forEach((field) => {
+      if (delta[field] !== undefined) state[field] = delta[field]
+    })
+
+    if (delta.playerCount !== undefined) {
+      state.players = state.players.slice(0, delta.playerCount)
+    }
+    (delta.players || []).forEach(({ index, player }) => {
+      state.players[index] = player
+    })
+
+    state.version = version
+    trackTurn(previous)
+  }
+
+  // Keyframes and resync snapshots repeat the current turn, so only a changed turn counts
+  function trackTurn(previous) {
+    if (!previous) return
+    const state = gameState.value
+    const turnChanged = previous.currentPlayerIndex !== state.currentPlayerIndex ||
+      previous.currentRound !== state.currentRound
+    if (turnChanged && isCurrentPlayerTurn.value) myTurnStarts.value++
+  }
+
   function disconnectWebSocket() {
     ws.disconnect()
     isConnected.value = false
@@ -286,6 +418,9 @@ export const useGameStore = defineStore('game', () => {
     classes,
     races,
     isConnected,
+    gameLog,
+    lastSeq,
+    myTurnStarts,
 
     // Computed
     isAuthenticated,
@@ -308,6 +443,7 @@ export const useGameStore = defineStore('game', () => {
     reroll,
     useAbility,
     addBot,
+    connectToLobby,
     connectToRoom,
     disconnectWebSocket,
     getCurrentPlayer